@@ -0,0 +1,126 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크 공용 유틸
+ * 애플리케이션을 인메모리 H2로 띄우고 벤치마크에 필요한 데이터를 넣는다.
+ */
+public final class BenchmarkSupport {
+    private static final int CHUNK_SIZE = 500;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * application.yml 보다 우선하도록 커맨드라인 인자로 데이터소스를 덮어쓴다.
+     * 벤치마크마다 다른 DB 이름을 써서 서로 섞이지 않게 한다.
+     */
+    public static ConfigurableApplicationContext start(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--jpashop.journal.enabled=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.root=warn"));
+        args.addAll(List.of(extraArgs));
+
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    public static TransactionTemplate transactionTemplate(ConfigurableApplicationContext context, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    public static Statistics statistics(ConfigurableApplicationContext context) {
+        return context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    /**
+     * 회원 한 명당 주문 하나, 주문 하나당 itemsPerOrder 개의 주문상품을 만든다.
+     * 상품은 itemsPerOrder 개를 만들어 모든 주문이 같이 쓴다.
+     */
+    public static void seedOrders(ConfigurableApplicationContext context, int orders, int itemsPerOrder) {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = transactionTemplate(context, false);
+
+        List<Long> itemIds = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < itemsPerOrder; i++) {
+                Book book = createBook("BENCH BOOK " + i, 10000 + i, Integer.MAX_VALUE / 2);
+                em.persist(book);
+                ids.add(book.getId());
+            }
+            return ids;
+        });
+
+        for (int start = 0; start < orders; start += CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(orders, start + CHUNK_SIZE);
+
+            tx.executeWithoutResult(status -> {
+                List<Book> books = new ArrayList<>();
+                for (Long itemId : itemIds) {
+                    books.add(em.find(Book.class, itemId));
+                }
+
+                for (int i = from; i < to; i++) {
+                    Member member = createMember("benchUser" + i);
+                    em.persist(member);
+
+                    OrderItem[] orderItems = books.stream()
+                            .map(book -> OrderItem.createOrderItem(book, book.getPrice(), 1))
+                            .toArray(OrderItem[]::new);
+
+                    Delivery delivery = new Delivery();
+                    delivery.setAddress(member.getAddress());
+
+                    em.persist(Order.createOrder(member, delivery, orderItems));
+                }
+
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+
+    public static Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        return book;
+    }
+
+    public static Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "벤치마크", "00000"));
+        return member;
+    }
+}
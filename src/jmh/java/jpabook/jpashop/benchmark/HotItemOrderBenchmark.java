@@ -0,0 +1,88 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 하나의 인기 상품(SKU)에 여러 스레드가 동시에 주문할 때의 처리량(orders/s)을 비교한다.
+ * <p>
+ * - dirtyChecking: 기존 OrderService.order() (읽고 빼고 더티 체킹)
+ * - atomicUpdate: OrderService.orderWithAtomicStock() (조건부 UPDATE 한 번)
+ * <p>
+ * 트라이얼이 끝나면 "초기 재고 - 현재 재고"와 "주문된 수량"을 비교해서 유실된 갱신 수를 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class HotItemOrderBenchmark {
+    private static final int INITIAL_STOCK = Integer.MAX_VALUE / 2;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private OrderService orderService;
+    private Long memberId;
+    private Long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("hot-item");
+        em = context.getBean(EntityManager.class);
+        orderService = context.getBean(OrderService.class);
+
+        BenchmarkSupport.transactionTemplate(context, false).executeWithoutResult(status -> {
+            Member member = BenchmarkSupport.createMember("hotItemUser");
+            em.persist(member);
+
+            Book book = BenchmarkSupport.createBook("HOT BOOK", 10000, INITIAL_STOCK);
+            em.persist(book);
+
+            memberId = member.getId();
+            itemId = book.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkSupport.transactionTemplate(context, true).executeWithoutResult(status -> {
+            int stock = em.find(Book.class, itemId).getStockQuantity();
+            Long ordered = em.createQuery("select coalesce(sum(oi.count), 0) from OrderItem oi where oi.item.id = :itemId", Long.class)
+                    .setParameter("itemId", itemId)
+                    .getSingleResult();
+
+            System.out.printf("%n[hot item] ordered=%d, decreased=%d, lost updates=%d%n",
+                    ordered, INITIAL_STOCK - stock, ordered - (INITIAL_STOCK - stock));
+        });
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class OrderCounter {
+        public long failures;
+    }
+
+    @Benchmark
+    public void dirtyChecking(OrderCounter counter) {
+        try {
+            orderService.order(memberId, itemId, 1);
+        } catch (RuntimeException e) {
+            counter.failures++;
+        }
+    }
+
+    @Benchmark
+    public void atomicUpdate(OrderCounter counter) {
+        try {
+            orderService.orderWithAtomicStock(memberId, itemId, 1);
+        } catch (RuntimeException e) {
+            counter.failures++;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * id 블록 크기(jpashop.id.allocation-size)에 따른 INSERT 처리량
+ * allocationSize=1 이면 INSERT 한 건마다 시퀀스를 한 번씩 호출한다. (기존 @GeneratedValue와 같다)
+ * <p>
+ * - order: OrderService.order() 한 번 (주문, 배송, 주문상품, 주문 요약)
+ * - bulkMembers: 한 트랜잭션에서 회원 100명 저장 (InitDb 같은 대량 적재, 결과는 회원 한 명 기준)
+ * <p>
+ * 재고 UPDATE 락 경합을 빼기 위해 스레드마다 자기 상품으로 주문한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class InsertThroughputBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1", "50"})
+    public int allocationSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate tx;
+    private OrderService orderService;
+    private Long memberId;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("insert-" + allocationSize, "--jpashop.id.allocation-size=" + allocationSize);
+        em = context.getBean(EntityManager.class);
+        tx = BenchmarkSupport.transactionTemplate(context, false);
+        orderService = context.getBean(OrderService.class);
+
+        tx.executeWithoutResult(status -> {
+            Member member = BenchmarkSupport.createMember("insertUser");
+            em.persist(member);
+            memberId = member.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadItem {
+        Long itemId;
+
+        @Setup(Level.Trial)
+        public void setUp(InsertThroughputBenchmark benchmark) {
+            itemId = benchmark.tx.execute(status -> {
+                Book book = BenchmarkSupport.createBook("INSERT BOOK", 10000, Integer.MAX_VALUE / 2);
+                benchmark.em.persist(book);
+                return book.getId();
+            });
+        }
+    }
+
+    @Benchmark
+    public Long order(ThreadItem threadItem) {
+        return orderService.order(memberId, threadItem.itemId, 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void bulkMembers() {
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                em.persist(BenchmarkSupport.createMember("bulkUser" + sequence.incrementAndGet()));
+            }
+        });
+    }
+}
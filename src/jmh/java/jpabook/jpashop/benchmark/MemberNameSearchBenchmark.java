@@ -0,0 +1,70 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.MemberNameIndex;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 이름으로 주문 검색
+ * <p>
+ * - like: OrderRepository.findAll() 에 이름만 넘긴다. (member.name LIKE '%keyword%', member 전체 스캔)
+ * - index: OrderService.findOrders() (바이그램 색인으로 회원 id를 찾고 member_id IN 조건)
+ * <p>
+ * 회원 이름은 benchUser0 ~ benchUser{members-1} 이고, 중간 일치 검색어로 몇 명만 걸리게 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberNameSearchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int members;
+
+    @Param({"User1234"})
+    public String keyword;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private OrderRepository orderRepository;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("member-name-search");
+        BenchmarkSupport.seedOrders(context, members, 1);
+
+        // 시드 데이터는 MemberService를 거치지 않으므로 색인을 다시 채운다.
+        context.getBean(MemberNameIndex.class).warmUp();
+
+        readOnlyTx = BenchmarkSupport.transactionTemplate(context, true);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object like() {
+        return readOnlyTx.execute(status -> orderRepository.findAll(search()));
+    }
+
+    @Benchmark
+    public Object index() {
+        return readOnlyTx.execute(status -> orderService.findOrders(search()));
+    }
+
+    private OrderSearch search() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(keyword);
+        return orderSearch;
+    }
+}
@@ -0,0 +1,80 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /api/v5/orders 결과(List<OrderQueryDto>)를 JSON과 CBOR로 인코딩하는 시간과 크기를 비교한다.
+ * 애플리케이션에 등록된 ObjectMapper를 그대로 써서 실제 응답과 같은 설정으로 측정한다.
+ * <p>
+ * - 인코딩 시간: 기본 결과 (us/op)
+ * - 응답 크기: bytes / calls 보조 카운터
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderEncodingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int orders;
+
+    @Param({"5"})
+    public int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private List<OrderQueryDto> result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("order-encoding");
+        BenchmarkSupport.seedOrders(context, orders, itemsPerOrder);
+
+        jsonMapper = context.getBean(ObjectMapper.class);
+        cborMapper = context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+        result = BenchmarkSupport.transactionTemplate(context, true)
+                .execute(status -> context.getBean(OrderQueryRepository.class).findAllByDtoOptimization());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SizeCounter {
+        public long bytes;
+        public long calls;
+    }
+
+    @Benchmark
+    public byte[] json(SizeCounter counter) throws IOException {
+        return encode(jsonMapper, counter);
+    }
+
+    @Benchmark
+    public byte[] cbor(SizeCounter counter) throws IOException {
+        return encode(cborMapper, counter);
+    }
+
+    private byte[] encode(ObjectMapper mapper, SizeCounter counter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        mapper.writeValue(out, result);
+
+        byte[] bytes = out.toByteArray();
+        counter.bytes += bytes.length;
+        counter.calls++;
+        return bytes;
+    }
+}
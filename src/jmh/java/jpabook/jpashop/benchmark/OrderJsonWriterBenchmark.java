@@ -0,0 +1,84 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderJsonWriter;
+import jpabook.jpashop.service.query.OrderQueryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 목록 응답 한 번(조회 + JSON 쓰기)의 처리량과 할당량을 비교한다.
+ * 할당량은 gc 프로파일러의 gc.alloc.rate.norm (B/op)을 본다.
+ * <p>
+ * - v5Jackson: /api/v5/orders (DTO 리스트 + ObjectMapper)
+ * - v6Jackson: /api/v6/orders (플랫 조회 + 그룹핑 + ObjectMapper)
+ * - v61Writer: /api/v6.1/orders (스크롤 + OrderJsonWriter)
+ * <p>
+ * 응답은 버리는 OutputStream에 쓴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderJsonWriterBenchmark {
+
+    @Param({"100", "1000"})
+    public int orders;
+
+    @Param({"5"})
+    public int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private OrderApiController orderApiController;
+    private OrderQueryService orderQueryService;
+    private ObjectMapper objectMapper;
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("order-json-writer");
+        BenchmarkSupport.seedOrders(context, orders, itemsPerOrder);
+
+        readOnlyTx = BenchmarkSupport.transactionTemplate(context, true);
+        orderApiController = context.getBean(OrderApiController.class);
+        orderQueryService = context.getBean(OrderQueryService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void v5Jackson() throws IOException {
+        objectMapper.writeValue(out, readOnlyTx.execute(status -> orderApiController.ordersV5()));
+    }
+
+    @Benchmark
+    public void v6Jackson() throws IOException {
+        objectMapper.writeValue(out, readOnlyTx.execute(status -> orderApiController.ordersV6()));
+    }
+
+    @Benchmark
+    public void v61Writer() {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                OrderJsonWriter writer = new OrderJsonWriter(generator);
+                orderQueryService.streamOrderRows(writer);
+                writer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
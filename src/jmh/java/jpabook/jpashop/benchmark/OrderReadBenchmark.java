@@ -0,0 +1,107 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.api.OrderApiController;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * OrderApiController에 정리된 주문 조회 전략(v1 ~ v6)을 같은 데이터로 비교한다.
+ * <p>
+ * - 처리량: 기본 결과 (ops/s)
+ * - 할당량: gc 프로파일러의 gc.alloc.rate.norm (B/op)
+ * - SQL 수: statements / calls 보조 카운터 (호출 한 번당 실행된 statement 수)
+ * <p>
+ * 컨트롤러가 OSIV 없이도 지연 로딩할 수 있도록 읽기 전용 트랜잭션 안에서 호출한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderReadBenchmark {
+
+    @Param({"100", "1000"})
+    public int orders;
+
+    @Param({"5"})
+    public int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private OrderApiController orderApiController;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("order-read");
+        BenchmarkSupport.seedOrders(context, orders, itemsPerOrder);
+
+        readOnlyTx = BenchmarkSupport.transactionTemplate(context, true);
+        orderApiController = context.getBean(OrderApiController.class);
+        statistics = BenchmarkSupport.statistics(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long calls;
+    }
+
+    @Benchmark
+    public Object v1Entity(SqlCounter counter) {
+        return read(counter, () -> orderApiController.ordersV1());
+    }
+
+    @Benchmark
+    public Object v2DtoNPlusOne(SqlCounter counter) {
+        return read(counter, () -> orderApiController.orderV2());
+    }
+
+    @Benchmark
+    public Object v3CollectionFetchJoin(SqlCounter counter) {
+        return read(counter, () -> orderApiController.orderV3());
+    }
+
+    @Benchmark
+    public Object v31BatchFetch(SqlCounter counter) {
+        return read(counter, () -> orderApiController.pagingOrderV3(0, orders));
+    }
+
+    @Benchmark
+    public Object v4QueryDtos(SqlCounter counter) {
+        return read(counter, () -> orderApiController.ordersV4());
+    }
+
+    @Benchmark
+    public Object v41ParallelChunks(SqlCounter counter) {
+        return read(counter, () -> orderApiController.ordersV41());
+    }
+
+    @Benchmark
+    public Object v5DtoOptimization(SqlCounter counter) {
+        return read(counter, () -> orderApiController.ordersV5());
+    }
+
+    @Benchmark
+    public Object v6DtoFlat(SqlCounter counter) {
+        return read(counter, () -> orderApiController.ordersV6());
+    }
+
+    private Object read(SqlCounter counter, Supplier<Object> call) {
+        long before = statistics.getPrepareStatementCount();
+        Object result = readOnlyTx.execute(status -> call.get());
+
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.calls++;
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.loadgen;
+
+import java.util.Random;
+
+/**
+ * 요청에 넣을 id 범위 (예: 1-1000, 양 끝 포함)
+ */
+class IdRange {
+    private final long from;
+    private final long to;
+
+    IdRange(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("잘못된 id 범위입니다. from=" + from + ", to=" + to);
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    static IdRange parse(String value) {
+        int dash = value.indexOf('-');
+        if (dash < 0) {
+            long id = Long.parseLong(value.trim());
+            return new IdRange(id, id);
+        }
+        return new IdRange(Long.parseLong(value.substring(0, dash).trim()), Long.parseLong(value.substring(dash + 1).trim()));
+    }
+
+    long next(Random random) {
+        return from + (long) (random.nextDouble() * (to - from + 1));
+    }
+
+    @Override
+    public String toString() {
+        return from + "-" + to;
+    }
+}
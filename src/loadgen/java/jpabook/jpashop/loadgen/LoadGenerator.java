@@ -0,0 +1,273 @@
+package jpabook.jpashop.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 로컬에서 띄운 인스턴스에 정해진 요청 믹스를 일정한 도착률로 보내는 부하 생성기
+ * (./gradlew loadgen -Ploadgen.args="--rate=200 --duration=60 --member-ids=1-100000 ...")
+ * <p>
+ * 열린 모델(open model): i번째 요청의 예정 시각은 start + i / rate 로 미리 정해지고,
+ * 응답을 기다리지 않고 비동기로 보낸다. 서버가 느려져도 도착률은 줄지 않는다.
+ * <p>
+ * 지연시간은 실제로 보낸 시각이 아니라 예정 시각부터 잰다.
+ * 생성기(또는 GC)가 밀려서 늦게 보낸 요청도 밀린 만큼 느린 요청으로 기록되므로
+ * coordinated omission으로 백분위가 낙관적으로 나오지 않는다.
+ * 같은 이유로 max-in-flight에 걸려 보내지 못한 요청과 끝날 때까지 응답이 오지 않은 요청도
+ * 빼지 않고 timeout 이상의 지연시간으로 백분위에 넣는다.
+ * <p>
+ * 구간마다 요청 종류별 백분위를 출력하고, 끝나면 전체 결과와 .hgrm 파일(output 디렉토리)을 남긴다.
+ */
+public class LoadGenerator {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final LoadOptions options;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<PendingRequest> pending = ConcurrentHashMap.newKeySet();
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator(LoadOptions.parse(args)).run();
+    }
+
+    LoadGenerator(LoadOptions options) {
+        this.options = options;
+        this.operations = options.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += options.getMix().get(operations[i]);
+            cumulativeWeights[i] = sum;
+            stats.put(operations[i], new OperationStats(operations[i].getKey()));
+        }
+    }
+
+    void run() throws Exception {
+        ExecutorService callbackExecutor = Executors.newFixedThreadPool(options.getThreads());
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(callbackExecutor)
+                .build();
+
+        System.out.printf("target=%s, rate=%.1f/s, warmup=%ds, duration=%ds, mix=%s%n",
+                options.getBaseUrl(), options.getRate(), options.getWarmupSeconds(), options.getDurationSeconds(), options.getMix());
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long end = measureStart + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        Random random = new Random(options.getRandomSeed());
+
+        long reportNanos = TimeUnit.SECONDS.toNanos(options.getReportIntervalSeconds());
+        reporter.scheduleAtFixedRate(this::reportInterval,
+                measureStart - System.nanoTime() + reportNanos, reportNanos, TimeUnit.NANOSECONDS);
+
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+
+                sleepUntil(intended);
+                send(client, next(random), random, intended, intended >= measureStart);
+            }
+
+            awaitInFlight();
+            abandonPending();
+        } finally {
+            reporter.shutdownNow();
+            reporter.awaitTermination(5, TimeUnit.SECONDS);
+            callbackExecutor.shutdownNow();
+        }
+
+        reportTotal();
+    }
+
+    private Operation next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void send(HttpClient client, Operation operation, Random random, long intended, boolean measured) {
+        OperationStats operationStats = stats.get(operation);
+
+        if (inFlight.get() >= options.getMaxInFlight()) {
+            if (measured) {
+                operationStats.drop(timeoutMicros());
+            }
+            return;
+        }
+
+        HttpRequest request = operation.request(options, random)
+                .timeout(Duration.ofSeconds(options.getTimeoutSeconds()))
+                .build();
+
+        PendingRequest pendingRequest = new PendingRequest(operationStats, intended, measured);
+        inFlight.incrementAndGet();
+        pending.add(pendingRequest);
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    if (!pendingRequest.complete()) {
+                        return;
+                    }
+                    pending.remove(pendingRequest);
+                    inFlight.decrementAndGet();
+
+                    if (measured) {
+                        boolean success = error == null && response.statusCode() < 400;
+                        operationStats.record(TimeUnit.NANOSECONDS.toMicros(latency), success);
+                    }
+                });
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getTimeoutSeconds());
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * awaitInFlight 이후에도 응답이 없는 요청은 지금까지 기다린 시간(최소 timeout)으로 실패 처리한다.
+     * 늦게 도착한 응답은 complete()에서 걸러지므로 두 번 기록되지 않는다.
+     */
+    private void abandonPending() {
+        long now = System.nanoTime();
+        for (PendingRequest pendingRequest : pending) {
+            if (!pendingRequest.complete()) {
+                continue;
+            }
+            pending.remove(pendingRequest);
+            inFlight.decrementAndGet();
+
+            if (pendingRequest.measured) {
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(now - pendingRequest.intended);
+                pendingRequest.stats.record(Math.max(latencyMicros, timeoutMicros()), false);
+            }
+        }
+    }
+
+    private long timeoutMicros() {
+        return TimeUnit.SECONDS.toMicros(options.getTimeoutSeconds());
+    }
+
+    private synchronized void reportInterval() {
+        System.out.printf("%n%-12s %8s %8s %10s %10s %10s%n", "interval", "count", "errors", "p50(ms)", "p99(ms)", "max(ms)");
+        for (OperationStats operationStats : stats.values()) {
+            Histogram interval = operationStats.nextInterval();
+            System.out.printf("%-12s %8d %8d %10.2f %10.2f %10.2f%n", operationStats.getName(),
+                    interval.getTotalCount(), operationStats.getErrors(),
+                    millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)), millis(interval.getMaxValue()));
+        }
+    }
+
+    private synchronized void reportTotal() throws FileNotFoundException {
+        stats.values().forEach(OperationStats::nextInterval);
+
+        Path output = Paths.get(options.getOutput());
+        output.toFile().mkdirs();
+
+        Histogram all = new Histogram(3);
+        System.out.printf("%n%-12s %8s %8s %8s %10s", "total", "count", "errors", "dropped", "rate(/s)");
+        for (double percentile : PERCENTILES) {
+            System.out.printf(" %10s", "p" + percentile);
+        }
+        System.out.printf(" %10s%n", "max(ms)");
+
+        for (OperationStats operationStats : stats.values()) {
+            Histogram total = operationStats.getTotal();
+            all.add(total);
+            print(operationStats.getName(), total, operationStats.getErrors(), operationStats.getDropped());
+            write(output.resolve(operationStats.getName() + ".hgrm"), total);
+        }
+
+        long errors = stats.values().stream().mapToLong(OperationStats::getErrors).sum();
+        long dropped = stats.values().stream().mapToLong(OperationStats::getDropped).sum();
+        print("all", all, errors, dropped);
+        write(output.resolve("all.hgrm"), all);
+
+        System.out.printf("%nhistograms written to %s%n", output.toAbsolutePath());
+    }
+
+    private void print(String name, Histogram histogram, long errors, long dropped) {
+        System.out.printf("%-12s %8d %8d %8d %10.1f", name, histogram.getTotalCount(), errors, dropped,
+                (double) histogram.getTotalCount() / options.getDurationSeconds());
+        for (double percentile : PERCENTILES) {
+            System.out.printf(" %10.2f", millis(histogram.getValueAtPercentile(percentile)));
+        }
+        System.out.printf(" %10.2f%n", millis(histogram.getMaxValue()));
+    }
+
+    /**
+     * HdrHistogram 백분위 분포 형식 (밀리초), HdrHistogram 플로터로 여러 실행을 겹쳐 볼 수 있다.
+     */
+    private static void write(Path path, Histogram histogram) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(path.toFile())) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * 보낸 뒤 아직 기록되지 않은 요청, 응답 콜백과 종료 처리 중 먼저 complete()한 쪽만 기록한다.
+     */
+    private static class PendingRequest {
+        private final OperationStats stats;
+        private final long intended;
+        private final boolean measured;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        PendingRequest(OperationStats stats, long intended, boolean measured) {
+            this.stats = stats;
+            this.intended = intended;
+            this.measured = measured;
+        }
+
+        boolean complete() {
+            return completed.compareAndSet(false, true);
+        }
+    }
+}
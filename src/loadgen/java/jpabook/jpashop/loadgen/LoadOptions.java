@@ -0,0 +1,144 @@
+package jpabook.jpashop.loadgen;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 부하 생성기 옵션 (--key=value)
+ * <p>
+ * - base-url: 대상 인스턴스 (기본 http://localhost:8080)
+ * - rate: 초당 요청 수 (도착률, 응답 속도와 무관하게 일정)
+ * - warmup, duration: 워밍업/측정 시간(초), 워밍업 구간은 결과에서 뺀다.
+ * - mix: 요청 종류별 가중치 (예: order=20,cancel=5,orders-v5=25,members-v2=25,items=25)
+ * - member-ids, item-ids, order-ids: 주문/취소에 쓸 id 범위 (예: 1-100000)
+ * - max-in-flight: 동시에 진행 중인 요청 상한, 넘으면 보내지 않고 실패(dropped)로 센다.
+ */
+class LoadOptions {
+    private String baseUrl = "http://localhost:8080";
+    private double rate = 100;
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+    private int reportIntervalSeconds = 5;
+    private int timeoutSeconds = 30;
+    private int maxInFlight = 1000;
+    private int threads = 4;
+    private long randomSeed = 42;
+    private String output = "build/loadgen";
+    private IdRange memberIds = new IdRange(1, 2);
+    private IdRange itemIds = new IdRange(1, 4);
+    private IdRange orderIds = new IdRange(1, 2);
+    private Map<Operation, Integer> mix = parseMix("order=20,cancel=5,orders-v5=25,members-v2=25,items=25");
+
+    static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("--key=value 형식이어야 합니다: " + arg);
+            }
+
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            switch (key) {
+                case "base-url": options.baseUrl = value; break;
+                case "rate": options.rate = Double.parseDouble(value); break;
+                case "warmup": options.warmupSeconds = Integer.parseInt(value); break;
+                case "duration": options.durationSeconds = Integer.parseInt(value); break;
+                case "report-interval": options.reportIntervalSeconds = Integer.parseInt(value); break;
+                case "timeout": options.timeoutSeconds = Integer.parseInt(value); break;
+                case "max-in-flight": options.maxInFlight = Integer.parseInt(value); break;
+                case "threads": options.threads = Integer.parseInt(value); break;
+                case "seed": options.randomSeed = Long.parseLong(value); break;
+                case "output": options.output = value; break;
+                case "member-ids": options.memberIds = IdRange.parse(value); break;
+                case "item-ids": options.itemIds = IdRange.parse(value); break;
+                case "order-ids": options.orderIds = IdRange.parse(value); break;
+                case "mix": options.mix = parseMix(value); break;
+                default: throw new IllegalArgumentException("알 수 없는 옵션입니다: " + key);
+            }
+        }
+
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("rate는 0보다 커야 합니다.");
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] pair = entry.split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.of(pair[0].trim()), weight);
+            }
+        }
+
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("mix에 가중치가 있는 요청이 하나 이상 있어야 합니다.");
+        }
+        return mix;
+    }
+
+    URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    long getRandomSeed() {
+        return randomSeed;
+    }
+
+    String getOutput() {
+        return output;
+    }
+
+    IdRange getMemberIds() {
+        return memberIds;
+    }
+
+    IdRange getItemIds() {
+        return itemIds;
+    }
+
+    IdRange getOrderIds() {
+        return orderIds;
+    }
+
+    Map<Operation, Integer> getMix() {
+        return mix;
+    }
+}
@@ -0,0 +1,69 @@
+package jpabook.jpashop.loadgen;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+
+/**
+ * 부하 믹스에 들어가는 요청 종류
+ * 주문/취소는 폼 POST라서 성공하면 302(redirect:/orders)가 온다. 리다이렉트는 따라가지 않는다.
+ */
+enum Operation {
+    ORDER("order") {
+        @Override
+        HttpRequest.Builder request(LoadOptions options, Random random) {
+            String form = "memberId=" + options.getMemberIds().next(random)
+                    + "&itemId=" + options.getItemIds().next(random)
+                    + "&count=" + (1 + random.nextInt(3));
+
+            return HttpRequest.newBuilder(options.uri("/order"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form));
+        }
+    },
+    CANCEL("cancel") {
+        @Override
+        HttpRequest.Builder request(LoadOptions options, Random random) {
+            return HttpRequest.newBuilder(options.uri("/orders/" + options.getOrderIds().next(random) + "/cancel"))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+        }
+    },
+    ORDERS_V5("orders-v5") {
+        @Override
+        HttpRequest.Builder request(LoadOptions options, Random random) {
+            return HttpRequest.newBuilder(options.uri("/api/v5/orders")).GET();
+        }
+    },
+    MEMBERS_V2("members-v2") {
+        @Override
+        HttpRequest.Builder request(LoadOptions options, Random random) {
+            return HttpRequest.newBuilder(options.uri("/api/v2/members")).GET();
+        }
+    },
+    ITEMS("items") {
+        @Override
+        HttpRequest.Builder request(LoadOptions options, Random random) {
+            return HttpRequest.newBuilder(options.uri("/items")).GET();
+        }
+    };
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    abstract HttpRequest.Builder request(LoadOptions options, Random random);
+
+    String getKey() {
+        return key;
+    }
+
+    static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 요청 종류입니다: " + key);
+    }
+}
@@ -0,0 +1,65 @@
+package jpabook.jpashop.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 요청 종류별 지연시간 기록 (마이크로초)
+ * 응답 콜백 스레드들이 Recorder에 기록하고, 리포터가 구간 히스토그램을 꺼내 누적한다.
+ */
+class OperationStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private Histogram interval;
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyMicros, boolean success) {
+        recorder.recordValue(latencyMicros);
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * 보내지 못한 요청, 빠지면 백분위가 좋아 보이므로 timeout 지연시간으로 히스토그램에도 넣는다.
+     */
+    void drop(long timeoutMicros) {
+        recorder.recordValue(timeoutMicros);
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * 지난 호출 이후의 기록을 꺼내 누적 히스토그램에 더하고 돌려준다.
+     */
+    synchronized Histogram nextInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return interval;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Histogram getTotal() {
+        return total;
+    }
+
+    long getErrors() {
+        return errors.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+}
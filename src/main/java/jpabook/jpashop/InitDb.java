@@ -2,7 +2,9 @@ package jpabook.jpashop;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.service.OrderSummaryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,16 +20,21 @@ import javax.persistence.EntityManager;
  * - userB
  * - SPRING1 BOOK
  * - SPRING2 BOOK
+ * <p>
+ * 대량 데이터(jpashop.seed.enabled=true)로 실행할 때는 DataSeeder가 대신한다.
  */
 @Component
+@ConditionalOnProperty(prefix = "jpashop.seed", name = "enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 public class InitDb {
     private final InitService initService;
+    private final OrderSummaryService orderSummaryService;
 
     @PostConstruct
     public void init() {
         initService.initDb1();
         initService.initDb2();
+        orderSummaryService.rebuild();
     }
 
     @Component
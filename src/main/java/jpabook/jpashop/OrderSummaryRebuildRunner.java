@@ -0,0 +1,24 @@
+package jpabook.jpashop;
+
+import jpabook.jpashop.service.OrderSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * --rebuild-order-summary 인자로 실행하면 시작 시점에 order_summary를 다시 만든다.
+ * (예: java -jar jpashop.jar --rebuild-order-summary)
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryRebuildRunner implements ApplicationRunner {
+    private final OrderSummaryService orderSummaryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("rebuild-order-summary")) {
+            orderSummaryService.rebuild();
+        }
+    }
+}
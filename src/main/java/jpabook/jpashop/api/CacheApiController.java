@@ -0,0 +1,62 @@
+package jpabook.jpashop.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 2차 캐시 리전별 히트/미스 통계
+ * hibernate.generate_statistics 가 꺼져 있으면 모두 0으로 보인다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class CacheApiController {
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/api/v1/cache-stats")
+    public Result<List<CacheRegionDto>> cacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheRegionDto> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(CacheRegionDto::new)
+                .collect(Collectors.toList());
+
+        return new Result<>(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(), regions);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private long queryCacheHitCount;
+        private long queryCacheMissCount;
+        private T regions;
+    }
+
+    @Data
+    static class CacheRegionDto {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+
+        public CacheRegionDto(CacheRegionStatistics statistics) {
+            this.region = statistics.getRegionName();
+            this.hitCount = statistics.getHitCount();
+            this.missCount = statistics.getMissCount();
+            this.putCount = statistics.getPutCount();
+        }
+    }
+}
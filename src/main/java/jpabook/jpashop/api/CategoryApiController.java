@@ -0,0 +1,54 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitor.SqlBudget;
+import jpabook.jpashop.repository.category.query.CategoryQueryDto;
+import jpabook.jpashop.repository.category.query.CategoryQueryRepository;
+import jpabook.jpashop.service.CategoryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+    private final CategoryService categoryService;
+    private final CategoryQueryRepository categoryQueryRepository;
+
+    @PostMapping("/api/v1/categories")
+    public CreateCategoryResponse saveCategory(@RequestBody @Valid CreateCategoryRequest request) {
+        Long id = categoryService.saveCategory(request.getName(), request.getParentId());
+        return new CreateCategoryResponse(id);
+    }
+
+    @PostMapping("/api/v1/categories/{categoryId}/items/{itemId}")
+    public void addItem(@PathVariable Long categoryId, @PathVariable Long itemId) {
+        categoryService.addItem(categoryId, itemId);
+    }
+
+    /**
+     * 하위 카테고리를 포함한 카테고리별 상품 목록 (깊이와 상관없이 쿼리 한 번)
+     */
+    @SqlBudget(1)
+    @GetMapping("/api/v1/categories/{categoryId}/items")
+    public List<CategoryQueryDto> subtreeItems(@PathVariable Long categoryId) {
+        return categoryQueryRepository.findSubtreeItems(categoryId);
+    }
+
+    @Data
+    static class CreateCategoryRequest {
+        @NotEmpty
+        private String name;
+        private Long parentId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateCategoryResponse {
+        private Long id;
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.service.DeliveryService;
+import jpabook.jpashop.service.DeliveryService.TransitionResult;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class DeliveryApiController {
+    private final DeliveryService deliveryService;
+
+    /**
+     * 배송 상태 일괄 변경 (청크별 처리 건수와 처리량을 함께 응답한다)
+     */
+    @PostMapping("/api/v1/deliveries/status")
+    public TransitionResult changeStatus(@RequestBody @Valid ChangeDeliveryStatusRequest request) {
+        return deliveryService.changeStatus(request.getDeliveryIds(), request.getStatus());
+    }
+
+    @Data
+    static class ChangeDeliveryStatusRequest {
+        @NotNull
+        private DeliveryStatus status;
+        @NotEmpty
+        private List<Long> deliveryIds;
+    }
+}
@@ -1,6 +1,9 @@
 package jpabook.jpashop.api;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.monitor.SqlBudget;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.VersionedResource;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -43,6 +46,8 @@ public class MemberApiController {
         return memberService.findAll();
     }
 
+    @SqlBudget(1)
+    @VersionedResource(Aggregate.MEMBER)
     @GetMapping("/api/v2/members")
     public Result membersV2() {
         List<MemberDto> collect = memberService.findAll().stream()
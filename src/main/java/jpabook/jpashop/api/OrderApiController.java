@@ -1,20 +1,39 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jpabook.jpashop.domain.*;
+import jpabook.jpashop.monitor.SqlBudget;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
 import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.OrderService.BatchCancelResult;
 import jpabook.jpashop.service.query.OrderQueryService;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.VersionedResource;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static java.util.stream.Collectors.*;
 
@@ -25,6 +44,25 @@ public class OrderApiController {
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
     private final OrderQueryService orderQueryService;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 장바구니 주문: 여러 상품을 한 번에 주문한다.
+     */
+    @PostMapping("/api/v1/orders")
+    public CreateOrderResponse saveOrderV1(@RequestBody @Valid CreateOrderRequest request) {
+        Long orderId = orderService.order(request.getMemberId(), request.getLines());
+        return new CreateOrderResponse(orderId);
+    }
+
+    /**
+     * 일괄 취소: 취소된 주문과 취소할 수 없어 건너뛴 주문을 함께 응답한다.
+     */
+    @PostMapping("/api/v1/orders/cancel")
+    public BatchCancelResult cancelOrdersV1(@RequestBody @Valid CancelOrdersRequest request) {
+        return orderService.cancelOrders(request.getOrderIds());
+    }
 
     /**
      * 엔티티 직접 반환은 그냥 쓰지 말자.
@@ -74,6 +112,7 @@ public class OrderApiController {
      * 컬렉션 여러개가 fetch join되면 데이터가 예측할 수 없이 증가한다.
      * 위와 같이 데이터가 부정합하게 조회될 수 있다.
      */
+    @SqlBudget(1)
     @GetMapping("/api/v3/orders")
     public List<OrderDto> orderV3() {
         return orderRepository.findAllWithItem(new OrderSearch()).stream()
@@ -95,6 +134,7 @@ public class OrderApiController {
      * 기본적으로 batchSize를 100으로 해놓고, DB가 순간 부하를 어디까지 견딜 수 있는
      * 판단하면 늘리던지 줄이던지 결정한다.
      */
+    @SqlBudget(3)
     @GetMapping("/api/v3.1/orders")
     public List<OrderDto> pagingOrderV3(
             @RequestParam(value = "offset", defaultValue = "1") int offset,
@@ -108,17 +148,63 @@ public class OrderApiController {
         return result;
     }
 
+    /**
+     * v3.1과 같은 조회 전략(ToOne 페치 조인 + default_batch_fetch_size)이지만 OFFSET 대신 커서로 페이징한다.
+     * 응답의 next를 다음 요청의 cursor로 넘기면 되고, next가 null이면 마지막 페이지다.
+     * 페이지 깊이와 상관없이 (order_date, order_id) 인덱스에서 limit 만큼만 읽는다.
+     * limit은 1 ~ 1000으로 제한하고(setMaxResults(0)은 제한 없음이다), 잘못된 커서는 400으로 응답한다.
+     */
+    @SqlBudget(3)
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult<List<OrderDto>> cursorOrderV3(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        limit = Math.min(Math.max(limit, 1), 1000);
+        OrderCursor current = OrderCursor.parse(cursor);
+
+        List<Order> orders = current == null
+                ? orderRepository.findAllWithMemberDelivery(null, null, limit)
+                : orderRepository.findAllWithMemberDelivery(current.getOrderDate(), current.getId(), limit);
+
+        List<OrderDto> result = orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(toList());
+
+        String next = orders.isEmpty() || orders.size() < limit ? null : OrderCursor.of(orders.get(orders.size() - 1)).encode();
+        return new CursorResult<>(result, next);
+    }
+
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
         return orderQueryRepository.findOrderQueryDtos();
     }
 
-    @GetMapping("/api/v5/orders")
+    /**
+     * v4의 N+1 주문상품 조회를 청크 단위 IN 쿼리로 바꾸고 전용 스레드 풀에서 병렬로 실행한다.
+     * 응답 시간은 가장 느린 청크에 맞춰지지만 그만큼 커넥션을 동시에 여러 개 쓴다.
+     * 커넥션 하나로 끝나는 v5와 OrderReadBenchmark로 비교해보고 선택하자.
+     * 스레드 풀이 밀려 있으면 기다리지 않고 503으로 응답한다.
+     * 작업 스레드에서 실행한 SQL도 X-Sql-* 헤더와 jpashop.sql.* 메트릭에 포함된다.
+     */
+    @GetMapping("/api/v4.1/orders")
+    public List<OrderQueryDto> ordersV41() {
+        try {
+            return orderQueryRepository.findOrderQueryDtosParallel();
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
+
+    @SqlBudget(2)
+    @VersionedResource({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
+    @GetMapping(value = "/api/v5/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public List<OrderQueryDto> ordersV5() {
         return orderQueryRepository.findAllByDtoOptimization();
     }
 
-    @GetMapping("/api/v6/orders")
+    @SqlBudget(1)
+    @VersionedResource({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
+    @GetMapping(value = "/api/v6/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public List<OrderQueryDto> ordersV6() {
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDtoFlat();
 
@@ -130,6 +216,76 @@ public class OrderApiController {
                 .collect(toList());
     }
 
+    /**
+     * v6과 같은 응답을 DTO 리스트 없이 만든다.
+     * 스크롤로 읽은 플랫 로우를 OrderJsonWriter가 바로 응답 스트림에 쓰므로
+     * 주문/주문상품 DTO 리스트와 그룹핑용 맵을 만들지 않고, Jackson 리플렉션도 거치지 않는다.
+     */
+    @VersionedResource({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
+    @GetMapping(value = "/api/v6.1/orders", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void ordersV61(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            OrderJsonWriter writer = new OrderJsonWriter(generator);
+            orderQueryService.streamOrderRows(writer);
+            writer.finish();
+        }
+    }
+
+    /**
+     * 대량 내보내기용 NDJSON 스트리밍
+     * v6과 같은 플랫 조회를 스크롤로 읽으면서 주문이 하나 완성될 때마다 한 줄씩 바로 응답에 쓴다.
+     * 결과를 List로 모으지 않으므로 주문이 수백만 건이어도 힙 사용량이 일정하다.
+     * (스크롤 fetch size는 jpashop.export.fetch-size로 조정한다.)
+     */
+    @GetMapping(value = "/api/v6/orders/export", produces = "application/x-ndjson")
+    public void exportOrdersV6(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+
+        ObjectWriter writer = objectMapper.writerFor(OrderQueryDto.class);
+        OutputStream out = response.getOutputStream();
+
+        orderQueryService.exportOrders(o -> {
+            try {
+                out.write(writer.writeValueAsBytes(o));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        out.flush();
+    }
+
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        private List<@Valid OrderLine> lines;
+    }
+
+    @Data
+    static class CancelOrdersRequest {
+        @NotEmpty
+        private List<Long> orderIds;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private T data;
+        private String next;
+    }
 
     @Data
     static class OrderDto {
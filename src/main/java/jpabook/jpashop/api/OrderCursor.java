@@ -0,0 +1,68 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderSummary;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 키셋 페이징용 커서
+ * 마지막으로 조회한 주문의 (orderDate, id)를 클라이언트가 해석할 필요 없도록 Base64로 감싸서 주고받는다.
+ */
+@Getter
+public class OrderCursor {
+    private static final String DELIMITER = "_";
+
+    private final LocalDateTime orderDate;
+    private final Long id;
+
+    private OrderCursor(LocalDateTime orderDate, Long id) {
+        this.orderDate = orderDate;
+        this.id = id;
+    }
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getOrderDate(), order.getId());
+    }
+
+    public static OrderCursor of(OrderSummary summary) {
+        return new OrderCursor(summary.getOrderDate(), summary.getId());
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(DELIMITER);
+
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, index)), Long.valueOf(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+    }
+
+    /**
+     * 요청 파라미터용: 커서가 없으면 null(첫 페이지), 잘못된 커서는 400으로 응답한다.
+     */
+    static OrderCursor parse(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        try {
+            return decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    public String encode() {
+        String raw = orderDate + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,74 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.journal.JournalRecord;
+import jpabook.jpashop.journal.OrderEventType;
+import jpabook.jpashop.journal.OrderJournal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 이벤트 재생
+ * 0부터 읽기 시작해서 응답의 next를 다음 요청의 offset으로 넘기면 이어서 받을 수 있다.
+ * 저널 파일에서 바로 읽으므로 주문 테이블을 조회하지 않는다.
+ * 레코드 경계가 아닌 offset이나 음수 offset은 400으로 응답한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderEventApiController {
+    private final OrderJournal orderJournal;
+
+    @GetMapping("/api/v1/order-events")
+    public Result<List<OrderEventDto>> orderEvents(
+            @RequestParam(value = "offset", defaultValue = "0") long offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<JournalRecord> records;
+        try {
+            records = orderJournal.read(offset, Math.min(Math.max(limit, 1), 1000));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        long next = records.isEmpty() ? offset : records.get(records.size() - 1).getNextOffset();
+        List<OrderEventDto> events = records.stream()
+                .map(OrderEventDto::new)
+                .collect(Collectors.toList());
+
+        return new Result<>(events, next);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+        private long next;
+    }
+
+    @Data
+    static class OrderEventDto {
+        private long offset;
+        private OrderEventType type;
+        private Long orderId;
+        private Long memberId;
+        private int totalPrice;
+        private Instant occurredAt;
+
+        public OrderEventDto(JournalRecord record) {
+            this.offset = record.getOffset();
+            this.type = record.getEvent().getType();
+            this.orderId = record.getEvent().getOrderId();
+            this.memberId = record.getEvent().getMemberId();
+            this.totalPrice = record.getEvent().getTotalPrice();
+            this.occurredAt = record.getEvent().getOccurredAt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 주문 id 순으로 정렬된 플랫 로우를 받아서 List<OrderQueryDto> 와 같은 모양의 JSON 배열을 바로 쓴다.
+ * <p>
+ * Jackson 데이터바인딩(리플렉션, DTO/리스트/맵 생성)을 거치지 않고 JsonGenerator로 직접 쓴다.
+ * 필드 이름은 미리 인코딩해두고, 날짜는 버퍼를 재사용해서 문자열을 만들지 않는다.
+ * 출력 버퍼는 JsonFactory의 BufferRecycler가 재사용한다.
+ * <p>
+ * 쓰레드 안전하지 않다. 요청마다 새로 만든다.
+ */
+public class OrderJsonWriter implements Consumer<OrderFlatDto> {
+    private static final SerializableString ORDER_ID = new SerializedString("orderId");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializableString ORDER_STATUS = new SerializedString("orderStatus");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString STREET = new SerializedString("street");
+    private static final SerializableString ZIPCODE = new SerializedString("zipcode");
+    private static final SerializableString ORDER_ITEMS = new SerializedString("orderItems");
+    private static final SerializableString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializableString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializableString COUNT = new SerializedString("count");
+
+    private final JsonGenerator generator;
+    private final StringBuilder dateBuilder = new StringBuilder(32);
+    private char[] dateChars = new char[32];
+
+    private Long currentOrderId;
+    private boolean started;
+
+    public OrderJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public void accept(OrderFlatDto row) {
+        try {
+            if (!started) {
+                generator.writeStartArray();
+                started = true;
+            }
+
+            if (!Objects.equals(currentOrderId, row.getOrderId())) {
+                if (currentOrderId != null) {
+                    endOrder();
+                }
+                startOrder(row);
+                currentOrderId = row.getOrderId();
+            }
+
+            writeItem(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 마지막 주문과 배열을 닫고 출력 버퍼를 비운다.
+     */
+    public void finish() throws IOException {
+        if (!started) {
+            generator.writeStartArray();
+        }
+        if (currentOrderId != null) {
+            endOrder();
+        }
+
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    private void startOrder(OrderFlatDto row) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ORDER_ID);
+        generator.writeNumber(row.getOrderId());
+        generator.writeFieldName(NAME);
+        generator.writeString(row.getName());
+        generator.writeFieldName(ORDER_DATE);
+        writeDate(row.getOrderDate());
+        generator.writeFieldName(ORDER_STATUS);
+        if (row.getOrderStatus() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(row.getOrderStatus().name());
+        }
+        generator.writeFieldName(ADDRESS);
+        writeAddress(row.getAddress());
+        generator.writeFieldName(ORDER_ITEMS);
+        generator.writeStartArray();
+    }
+
+    private void endOrder() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeItem(OrderFlatDto row) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ORDER_ID);
+        generator.writeNumber(row.getOrderId());
+        generator.writeFieldName(ITEM_NAME);
+        generator.writeString(row.getItemName());
+        generator.writeFieldName(ORDER_PRICE);
+        generator.writeNumber(row.getOrderPrice());
+        generator.writeFieldName(COUNT);
+        generator.writeNumber(row.getCount());
+        generator.writeEndObject();
+    }
+
+    private void writeAddress(Address address) throws IOException {
+        if (address == null) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartObject();
+        generator.writeFieldName(CITY);
+        generator.writeString(address.getCity());
+        generator.writeFieldName(STREET);
+        generator.writeString(address.getStreet());
+        generator.writeFieldName(ZIPCODE);
+        generator.writeString(address.getZipcode());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Jackson JavaTimeModule 기본 형식과 같은 ISO-8601 (yyyy-MM-ddTHH:mm:ss.SSS...)
+     */
+    private void writeDate(LocalDateTime date) throws IOException {
+        if (date == null) {
+            generator.writeNull();
+            return;
+        }
+
+        dateBuilder.setLength(0);
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(date, dateBuilder);
+
+        int length = dateBuilder.length();
+        if (dateChars.length < length) {
+            dateChars = new char[length];
+        }
+        dateBuilder.getChars(0, length, dateChars, 0);
+        generator.writeString(dateChars, 0, length);
+    }
+}
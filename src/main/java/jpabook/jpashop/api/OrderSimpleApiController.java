@@ -4,12 +4,18 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderSearch;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.monitor.SqlBudget;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.VersionedResource;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -28,6 +34,7 @@ import java.util.stream.Collectors;
 public class OrderSimpleApiController {
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
     private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     @GetMapping("/api/v1/simple-orders")
     public List<Order> orderV1() {
@@ -41,6 +48,7 @@ public class OrderSimpleApiController {
                 .collect(Collectors.toList());
     }
 
+    @SqlBudget(1)
     @GetMapping("/api/v3/simple-orders")
     public List<SimpleOrderDto> orderV3() {
         return orderRepository.findAllWithMemberDelivery()
@@ -57,11 +65,60 @@ public class OrderSimpleApiController {
      * -> 가급적 Repository는 순수한 엔티티만 조회할 수 있도록 하고,
      * 화면에 종속적인 쿼리들은 Simplequery 패키지를 따로 두어 관리하는게 유지보수에 좋다.
      */
+    @SqlBudget(1)
+    @VersionedResource({Aggregate.ORDER, Aggregate.MEMBER})
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> orderV4() {
         return orderSimpleQueryRepository.findOrderDtos();
     }
 
+    /**
+     * 주문/회원/배송 조인 대신 미리 펼쳐둔 order_summary 한 테이블만 읽는다.
+     * v3.2 주문 조회처럼 (orderDate, id) 커서로 페이징하므로 주문이 많아도 (order_date, order_id) 인덱스에서 limit 만큼만 읽는다.
+     * 응답의 next를 다음 요청의 cursor로 넘기고, next가 null이면 마지막 페이지다.
+     */
+    @SqlBudget(1)
+    @VersionedResource(Aggregate.ORDER)
+    @GetMapping("/api/v5/simple-orders")
+    public OrderApiController.CursorResult<List<OrderSummaryDto>> orderV5(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        limit = Math.min(Math.max(limit, 1), 1000);
+        OrderCursor current = OrderCursor.parse(cursor);
+
+        List<OrderSummary> summaries = current == null
+                ? orderSummaryRepository.findPage(null, null, limit)
+                : orderSummaryRepository.findPage(current.getOrderDate(), current.getId(), limit);
+
+        List<OrderSummaryDto> result = summaries.stream()
+                .map(s -> new OrderSummaryDto(s))
+                .collect(Collectors.toList());
+
+        String next = summaries.size() < limit ? null : OrderCursor.of(summaries.get(summaries.size() - 1)).encode();
+        return new OrderApiController.CursorResult<>(result, next);
+    }
+
+    @Data
+    static class OrderSummaryDto {
+        private Long orderId;
+        private String name;
+        private LocalDateTime orderDate;
+        private OrderStatus orderStatus;
+        private Address address;
+        private int itemCount;
+        private int totalPrice;
+
+        public OrderSummaryDto(OrderSummary summary) {
+            this.orderId = summary.getId();
+            this.name = summary.getMemberName();
+            this.orderDate = summary.getOrderDate();
+            this.orderStatus = summary.getStatus();
+            this.address = summary.getAddress();
+            this.itemCount = summary.getItemCount();
+            this.totalPrice = summary.getTotalPrice();
+        }
+    }
+
     @Data
     static class SimpleOrderDto {
         private Long orderId;
@@ -0,0 +1,23 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitor.QueryShapeStatistics;
+import jpabook.jpashop.monitor.QueryShapeStatistics.ShapeSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 주문 검색 조건 조합별 실행 횟수/평균/최대 지연 시간 (평균이 긴 순서)
+ */
+@RestController
+@RequiredArgsConstructor
+public class QueryStatsApiController {
+    private final QueryShapeStatistics queryShapeStatistics;
+
+    @GetMapping("/api/v1/order-search-stats")
+    public List<ShapeSnapshot> orderSearchStats() {
+        return queryShapeStatistics.snapshot();
+    }
+}
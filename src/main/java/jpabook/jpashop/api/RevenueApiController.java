@@ -0,0 +1,50 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitor.SqlBudget;
+import jpabook.jpashop.repository.order.revenue.DailyRevenueDto;
+import jpabook.jpashop.repository.order.revenue.MemberRevenueDto;
+import jpabook.jpashop.repository.order.revenue.OrderRevenueQueryRepository;
+import jpabook.jpashop.repository.order.revenue.StatusRevenueDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 대시보드용 매출 집계 API
+ * 모두 쿼리 한 번으로 DB에서 집계된 결과만 가져온다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class RevenueApiController {
+    private static final int MAX_MEMBERS = 1000;
+
+    private final OrderRevenueQueryRepository orderRevenueQueryRepository;
+
+    /**
+     * 매출 상위 회원, limit은 1 ~ 1000 으로 맞춘다. (0은 setMaxResults에서 제한 없음이 된다)
+     */
+    @SqlBudget(1)
+    @GetMapping("/api/v1/revenue/members")
+    public List<MemberRevenueDto> revenueByMember(@RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return orderRevenueQueryRepository.findRevenueByMember(Math.min(Math.max(limit, 1), MAX_MEMBERS));
+    }
+
+    @SqlBudget(1)
+    @GetMapping("/api/v1/revenue/daily")
+    public List<DailyRevenueDto> revenueByDay(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return orderRevenueQueryRepository.findRevenueByDay(from, to);
+    }
+
+    @SqlBudget(1)
+    @GetMapping("/api/v1/revenue/status")
+    public List<StatusRevenueDto> revenueByStatus() {
+        return orderRevenueQueryRepository.findRevenueByStatus();
+    }
+}
@@ -0,0 +1,106 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션을 레플리카로 보내는 데이터소스 설정
+ * jpashop.datasource.replication.enabled=true 일 때만 동작하고, 프라이머리는 spring.datasource 설정을 그대로 쓴다.
+ * <p>
+ * OSIV를 켜면 요청의 EntityManager가 처음 얻은 커넥션을 요청 끝까지 잡고 있어서,
+ * 읽기 전용 트랜잭션 다음에 오는 쓰기 트랜잭션도 레플리카 커넥션을 그대로 쓰게 된다.
+ * 그래서 spring.jpa.open-in-view=false 가 아니면 시작하지 않는다.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReplicationProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.datasource.replication", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    public DataSourceConfig(@Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException("읽기/쓰기 분리를 쓰려면 spring.jpa.open-in-view=false 로 설정해야 합니다.");
+        }
+    }
+
+    /**
+     * 프라이머리 커넥션 풀 (spring.datasource.* + spring.datasource.hikari.* 설정을 그대로 쓴다)
+     * 빈으로 등록하므로 부트가 hikaricp.* 메트릭을 붙이고 종료 시 닫아준다.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    /**
+     * 레플리카 풀은 빈이 아니므로 hikaricp.* 메트릭을 직접 붙이고, 종료 시 라우팅 데이터소스의 close()로 닫는다.
+     * 풀 설정은 spring.datasource.hikari.* 를 그대로 쓰고 레플리카별 hikari.* 로 덮어쓸 수 있다.
+     * (예: jpashop.datasource.replication.replicas[0].hikari.maximum-pool-size=20)
+     * 풀 이름(replica-0, replica-1, ...)이 메트릭의 pool 태그가 된다.
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicationRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                         ReplicationProperties replicationProperties,
+                                                         Environment environment,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReplicationProperties.Replica replica : replicationProperties.getReplicas()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            binder.bind("jpashop.datasource.replication.replicas[" + replicas.size() + "].hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("replica-" + replicas.size());
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(dataSource);
+        }
+
+        return new ReplicationRoutingDataSource(primaryDataSource, replicas, replicationProperties.getReadYourWritesMillis());
+    }
+
+    /**
+     * 클라이언트별 read-your-writes (쿠키의 마지막 쓰기 시각을 요청 동안 라우팅에 알려준다)
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicationProperties replicationProperties) {
+        return new ReadYourWritesFilter(replicationProperties.getReadYourWritesMillis());
+    }
+
+    /**
+     * 트랜잭션이 시작될 때가 아니라 첫 쿼리가 실행될 때 커넥션을 얻어야 readOnly 여부로 라우팅할 수 있다.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
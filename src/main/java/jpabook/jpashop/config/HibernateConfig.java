@@ -0,0 +1,49 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.monitor.RowCountingDataSource;
+import jpabook.jpashop.monitor.SqlStatisticsSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * 모든 세션에 SQL 통계 리스너를 붙인다.
+     */
+    @Bean
+    HibernatePropertiesCustomizer sqlStatisticsCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlStatisticsSessionListener.class.getName());
+    }
+
+    /**
+     * JPA가 쓰는 dataSource 빈을 감싸서 SQL 통계에 로우 수를 더한다.
+     * (레플리카 설정에서도 라우팅 위의 dataSource 하나만 감싸므로 두 번 세지 않는다)
+     */
+    @Bean
+    static BeanPostProcessor rowCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+                    return RowCountingDataSource.wrap((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * PooledSequenceGenerator가 읽을 id 블록 크기
+     */
+    @Bean
+    HibernatePropertiesCustomizer idAllocationCustomizer(@Value("${jpashop.id.allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize) {
+        return properties -> properties.put(PooledSequenceGenerator.ALLOCATION_SIZE, String.valueOf(allocationSize));
+    }
+}
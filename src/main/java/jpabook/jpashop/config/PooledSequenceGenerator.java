@@ -0,0 +1,34 @@
+package jpabook.jpashop.config;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * 엔티티별 시퀀스 + pooled-lo 옵티마이저
+ * 시퀀스를 한 번 호출하면 allocationSize 개의 id 블록을 받아서 메모리에서 나눠준다.
+ * 시퀀스 값이 블록의 시작값이므로 다른 노드(또는 JDBC로 직접 넣는 도구)도 같은 시퀀스에서 블록을 받으면 겹치지 않는다.
+ * <p>
+ * 블록 크기는 jpashop.id.allocation-size (HibernateConfig에서 하이버네이트 설정으로 넘긴다)
+ * 블록 크기를 바꾸면 시퀀스의 increment도 같이 바꿔야 하므로 스키마를 다시 만들거나 ALTER SEQUENCE가 필요하다.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE = "jpashop.id.allocation_size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.monitor.SqlStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class QueryExecutorConfig {
+
+    /**
+     * 조회 쿼리를 병렬로 나눠 실행할 때 쓰는 전용 스레드 풀
+     * 스레드 하나가 커넥션 하나를 쓰므로 parallelism은 커넥션 풀 크기(maximumPoolSize)보다 충분히 작아야 한다.
+     * 요청 스레드는 커넥션을 잡지 않고 기다리기만 하므로, 이 풀의 작업들이 쓰는 커넥션은 최대 parallelism 개다.
+     * 큐가 가득 차면 queue-wait-ms 만큼만 자리를 기다리고 RejectedExecutionException을 던진다.
+     * (호출한 스레드에서 직접 실행하면 요청 스레드가 OSIV 커넥션을 잡은 채로 쿼리를 돌리게 된다)
+     * 작업 스레드에서 실행한 SQL도 요청의 SQL 통계에 들어가도록 SqlStatistics를 넘겨준다.
+     */
+    @Bean(name = "orderQueryExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor orderQueryExecutor(@Value("${jpashop.query.parallelism:4}") int parallelism,
+                                                     @Value("${jpashop.query.queue-wait-ms:1000}") long queueWaitMillis) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism * 16);
+        executor.setThreadNamePrefix("order-query-");
+        executor.setTaskDecorator(SqlStatistics::wrap);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            try {
+                if (pool.isShutdown() || !pool.getQueue().offer(task, queueWaitMillis, TimeUnit.MILLISECONDS)) {
+                    throw new RejectedExecutionException("order-query 큐가 " + queueWaitMillis + "ms 동안 비지 않았습니다.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(e);
+            }
+        });
+        return executor;
+    }
+
+    /**
+     * Executor 빈이 하나라도 있으면 부트가 applicationTaskExecutor를 만들지 않으므로 부트와 같은 설정(spring.task.execution.*)으로 직접 등록한다.
+     * MVC 비동기 요청과 @Async가 orderQueryExecutor로 넘어가지 않게 한다.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.config;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청을 보낸 클라이언트의 마지막 쓰기 커밋 시각
+ * 스레드가 아니라 클라이언트 단위로 기억해야 하므로 시각은 쿠키(LAST_WRITE_COOKIE)로 클라이언트에 돌려주고,
+ * 다음 요청에서 ReadYourWritesFilter가 다시 읽어 요청을 처리하는 동안만 현재 스레드에 묶어둔다.
+ * 톰캣이 스레드를 재사용해도 다른 클라이언트의 쓰기 시각이 남지 않고, 어느 노드가 요청을 받든 같은 값을 본다.
+ * <p>
+ * 요청 밖(스케줄러, 러너 등)에서는 묶인 클라이언트가 없으므로 읽기를 프라이머리에 고정하지 않는다.
+ */
+public final class ReadYourWrites {
+    public static final String LAST_WRITE_COOKIE = "jpashop-last-write";
+
+    private static final ThreadLocal<Client> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static void bind(Long lastWriteAt, HttpServletResponse response, long windowMillis) {
+        CURRENT.set(new Client(lastWriteAt, response, windowMillis));
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return 현재 요청을 보낸 클라이언트의 마지막 쓰기 시각, 모르면 null
+     */
+    static Long lastWriteAt() {
+        Client client = CURRENT.get();
+        return client == null ? null : client.lastWriteAt;
+    }
+
+    /**
+     * 현재 요청의 읽기를 프라이머리로 고정한다. (쿠키는 남기지 않는다)
+     * 묶인 요청이 없으면(레플리카를 쓰지 않으면) 아무것도 하지 않는다.
+     */
+    public static void pinPrimary() {
+        Client client = CURRENT.get();
+        if (client != null) {
+            client.primaryPinned = true;
+        }
+    }
+
+    static boolean isPrimaryPinned() {
+        Client client = CURRENT.get();
+        return client != null && client.primaryPinned;
+    }
+
+    /**
+     * 쓰기 트랜잭션이 커밋되면 현재 클라이언트에 시각을 기록하고 쿠키로 내려준다.
+     */
+    static void written(long at) {
+        Client client = CURRENT.get();
+        if (client == null) {
+            return;
+        }
+
+        client.lastWriteAt = at;
+        if (client.response != null && !client.response.isCommitted()) {
+            Cookie cookie = new Cookie(LAST_WRITE_COOKIE, String.valueOf(at));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (client.windowMillis + 999) / 1000));
+            client.response.addCookie(cookie);
+        }
+    }
+
+    private static class Client {
+        private Long lastWriteAt;
+        private boolean primaryPinned;
+        private final HttpServletResponse response;
+        private final long windowMillis;
+
+        Client(Long lastWriteAt, HttpServletResponse response, long windowMillis) {
+            this.lastWriteAt = lastWriteAt;
+            this.response = response;
+            this.windowMillis = windowMillis;
+        }
+    }
+}
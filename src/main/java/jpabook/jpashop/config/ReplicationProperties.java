@@ -0,0 +1,36 @@
+package jpabook.jpashop.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties("jpashop.datasource.replication")
+public class ReplicationProperties {
+    private boolean enabled;
+
+    /**
+     * 쓰기 커밋 후 같은 스레드의 읽기를 프라이머리로 보내는 시간 (0이면 사용 안 함)
+     */
+    private long readYourWritesMillis;
+
+    private long healthCheckIntervalMillis = 5000;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 커넥션 풀 설정은 spring.datasource.hikari.* 를 따르고, replicas[n].hikari.* 로 레플리카별로 덮어쓴다.
+     * (DataSourceConfig에서 HikariDataSource에 직접 바인딩한다)
+     */
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,141 @@
+package jpabook.jpashop.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 레플리카로, 나머지는 프라이머리로 보낸다.
+ * <p>
+ * - 레플리카는 라운드 로빈으로 고르고, 헬스 체크에 실패한 레플리카는 건너뛴다.
+ * 살아있는 레플리카가 없으면 프라이머리로 보낸다.
+ * - readYourWritesMillis > 0 이면 같은 클라이언트의 쓰기 트랜잭션이 커밋된 뒤 그 시간 동안은
+ * 읽기도 프라이머리로 보내서 복제 지연 때문에 방금 쓴 데이터가 안 보이는 일을 막는다.
+ * (클라이언트별 쓰기 시각은 ReadYourWrites가 쿠키로 주고받는다)
+ * <p>
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 동기화되지 않았으므로
+ * 반드시 LazyConnectionDataSourceProxy로 감싸서 첫 쿼리 시점에 커넥션을 얻도록 해야 한다.
+ */
+@Slf4j
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Map<String, DataSource> replicas = new HashMap<>();
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+    private final AtomicInteger counter = new AtomicInteger();
+    private final long readYourWritesMillis;
+
+    public ReplicationRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            replicas.put(key, replicaDataSources.get(i));
+            healthy.put(key, true);
+            targets.put(key, replicaDataSources.get(i));
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWriteCommit();
+            return PRIMARY;
+        }
+
+        if (recentlyWritten()) {
+            return PRIMARY;
+        }
+
+        return nextHealthyReplica();
+    }
+
+    private String nextHealthyReplica() {
+        int size = replicaKeys.size();
+        int start = Math.floorMod(counter.getAndIncrement(), Math.max(size, 1));
+
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (healthy.get(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private boolean recentlyWritten() {
+        if (ReadYourWrites.isPrimaryPinned()) {
+            return true;
+        }
+
+        Long writtenAt = ReadYourWrites.lastWriteAt();
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < readYourWritesMillis;
+    }
+
+    private void registerWriteCommit() {
+        if (readYourWritesMillis <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.written(System.currentTimeMillis());
+            }
+        });
+    }
+
+    /**
+     * 레플리카마다 커넥션을 하나 얻어 살아있는지 확인하고 상태를 갱신한다.
+     */
+    @Scheduled(fixedDelayString = "${jpashop.datasource.replication.health-check-interval-millis:5000}")
+    public void checkReplicaHealth() {
+        for (String key : replicaKeys) {
+            boolean alive;
+            try (Connection connection = replicas.get(key).getConnection()) {
+                alive = connection.isValid(1);
+            } catch (Exception e) {
+                alive = false;
+            }
+
+            Boolean before = healthy.put(key, alive);
+            if (before != null && before != alive) {
+                log.warn("{} is {}", key, alive ? "back online" : "down, routing reads to other replicas or primary");
+            }
+        }
+    }
+
+    boolean isHealthy(String replicaKey) {
+        return healthy.getOrDefault(replicaKey, false);
+    }
+
+    /**
+     * 빈이 아닌 레플리카 커넥션 풀은 직접 닫아야 한다. (프라이머리는 빈이므로 컨테이너가 닫는다)
+     */
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable) {
+                ((AutoCloseable) replica).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package jpabook.jpashop.config;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.monitor.SqlStatisticsInterceptor;
+import jpabook.jpashop.version.AggregateVersions;
+import jpabook.jpashop.version.VersionedResourceInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final AggregateVersions aggregateVersions;
+    private final MeterRegistry meterRegistry;
+
+    // 버전이 올라간 뒤 이 시간 동안은 버전 리소스를 프라이머리에서 읽는다. (레플리카 복제 지연 상한)
+    @Value("${jpashop.datasource.replication.read-your-writes-millis:1000}")
+    private long replicaLagMillis;
+
+    /**
+     * Accept: application/cbor 요청에 CBOR(바이너리 JSON)로 응답한다.
+     * 스프링 부트의 Jackson 설정(Hibernate5Module 등)을 그대로 쓰고, 날짜만 숫자 배열로 써서 크기를 줄인다.
+     * 빈으로 등록하면 부트가 기본 컨버터 목록에 추가한다.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatisticsInterceptor(meterRegistry))
+                .addPathPatterns("/api/**");
+        registry.addInterceptor(new VersionedResourceInterceptor(aggregateVersions, replicaLagMillis))
+                .addPathPatterns("/api/**");
+    }
+}
@@ -3,6 +3,8 @@ package jpabook.jpashop.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -11,7 +13,9 @@ import javax.persistence.*;
 @Setter
 public class Delivery {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "delivery_seq")
+    @GenericGenerator(name = "delivery_seq", strategy = "jpabook.jpashop.config.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "delivery_seq"))
     @Column(name = "delivery_id")
     private Long id;
 
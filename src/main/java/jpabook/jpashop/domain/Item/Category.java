@@ -1,7 +1,13 @@
 package jpabook.jpashop.domain.Item;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -10,11 +16,15 @@ import java.util.List;
 import static javax.persistence.FetchType.*;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
 @Getter
 @Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Category {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "category_seq")
+    @GenericGenerator(name = "category_seq", strategy = "jpabook.jpashop.config.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "category_seq"))
     @Column(name = "category_id")
     private Long id;
 
@@ -22,9 +32,11 @@ public class Category {
 
     // 다대다 관계는 중간 테이블 명시 (실무 사용 X)
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category-items")
     @JoinTable(name = "category_item",
             joinColumns = @JoinColumn(name = "category_id"),
-            inverseJoinColumns = @JoinColumn(name = "item_id"))
+            inverseJoinColumns = @JoinColumn(name = "item_id"),
+            uniqueConstraints = @UniqueConstraint(columnNames = {"category_id", "item_id"}))
     private final List<Item> items = new ArrayList<>();
 
     // 셀프로 양방향 연관 관계 매핑 (실무 사용 X)
@@ -33,13 +45,60 @@ public class Category {
     private Category parent;
 
     @OneToMany(mappedBy = "parent")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category-children")
     private List<Category> child = new ArrayList<>();
 
+    // 이 카테고리가 자손인 경로 (자기 자신 포함)
+    @OneToMany(mappedBy = "descendant", cascade = CascadeType.PERSIST)
+    private List<CategoryClosure> ancestorPaths = new ArrayList<>();
+
+    // 이 카테고리가 조상인 경로 (자기 자신 포함)
+    @OneToMany(mappedBy = "ancestor")
+    private List<CategoryClosure> descendantPaths = new ArrayList<>();
+
+    // 이 카테고리에 직접 속한 상품 수 (하위 트리 조회 시 items를 세지 않도록 저장)
+    private int itemCount;
+
+    /**
+     * 생성 메서드
+     * 클로저 테이블에 자기 자신 경로(depth 0)가 있어야 하므로 카테고리는 이 메서드로 만든다.
+     */
+    public static Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        CategoryClosure.createPath(category, category, 0);
+        return category;
+    }
+
     /**
      * 연관 관계 편의 메서드
+     * 클로저 테이블도 함께 갱신한다. (이 카테고리의 모든 조상 x 자식 하위 트리의 모든 노드)
+     * 다른 부모에 이미 붙어있는 카테고리를 옮기는 것은 지원하지 않는다.
      */
     public void addChildCategory(Category child) {
         this.child.add(child);
         child.setParent(this);
+
+        List<CategoryClosure> ancestors = new ArrayList<>(this.ancestorPaths);
+        List<CategoryClosure> subtree = new ArrayList<>(child.getDescendantPaths());
+
+        for (CategoryClosure up : ancestors) {
+            for (CategoryClosure down : subtree) {
+                CategoryClosure.createPath(up.getAncestor(), down.getDescendant(), up.getDepth() + down.getDepth() + 1);
+            }
+        }
+    }
+
+    /**
+     * 이미 속한 상품이면 아무것도 하지 않는다. (category_item 중복 로우와 itemCount 중복 집계 방지)
+     */
+    public void addItem(Item item) {
+        if (items.contains(item)) {
+            return;
+        }
+
+        items.add(item);
+        item.getCategories().add(this);
+        itemCount++;
     }
 }
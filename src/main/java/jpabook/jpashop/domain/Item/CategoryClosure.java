@@ -0,0 +1,56 @@
+package jpabook.jpashop.domain.Item;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+
+import static javax.persistence.FetchType.*;
+
+/**
+ * 카테고리 클로저 테이블
+ * 조상-자손 쌍마다 한 로우(자기 자신은 depth 0)를 저장해서
+ * 하위 트리 전체를 재귀 없이 ancestor_id 조건 하나로 조회할 수 있게 한다.
+ * Category.addChildCategory()에서 함께 만들어지고 Category에서 영속성 전이된다.
+ */
+@Entity
+@Table(name = "category_closure",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_closure", columnNames = {"ancestor_id", "descendant_id"}),
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CategoryClosure {
+    @Id
+    @GeneratedValue(generator = "category_closure_seq")
+    @GenericGenerator(name = "category_closure_seq", strategy = "jpabook.jpashop.config.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "category_closure_seq"))
+    @Column(name = "category_closure_id")
+    private Long id;
+
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "ancestor_id")
+    private Category ancestor;
+
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "descendant_id")
+    private Category descendant;
+
+    private int depth;
+
+    /**
+     * 생성 메서드 (양쪽 카테고리의 경로 컬렉션에도 추가한다)
+     */
+    public static CategoryClosure createPath(Category ancestor, Category descendant, int depth) {
+        CategoryClosure path = new CategoryClosure();
+        path.ancestor = ancestor;
+        path.descendant = descendant;
+        path.depth = depth;
+
+        ancestor.getDescendantPaths().add(path);
+        descendant.getAncestorPaths().add(path);
+        return path;
+    }
+}
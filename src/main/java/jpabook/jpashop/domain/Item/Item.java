@@ -5,6 +5,10 @@ import lombok.Getter;
 import lombok.Setter;
 import net.bytebuddy.dynamic.loading.InjectionClassLoader;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -13,14 +17,18 @@ import java.util.List;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 @Getter @Setter
 public abstract class Item {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "item_seq")
+    @GenericGenerator(name = "item_seq", strategy = "jpabook.jpashop.config.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "item_seq"))
     @Column(name = "item_id")
     private Long id;
 
     @ManyToMany(mappedBy = "items")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item-categories")
     private List<Category> categories = new ArrayList<>();
 
     private String name;
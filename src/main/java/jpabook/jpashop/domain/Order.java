@@ -6,6 +6,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -15,13 +17,18 @@ import java.util.List;
 import static javax.persistence.FetchType.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "orderDate, order_id"),
+        @Index(name = "idx_orders_status_order_date", columnList = "status, orderDate")
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", strategy = "jpabook.jpashop.config.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "orders_seq"))
     @Column(name = "order_id")
     private Long id;
 
@@ -41,6 +48,13 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    /**
+     * 주문 금액 (주문상품 가격 * 수량의 합)
+     * 목록/집계에서 orderItems 컬렉션을 로딩하지 않도록 주문 시점에 계산해서 저장한다.
+     * 취소해도 주문 금액은 그대로이고, 매출 집계는 상태로 구분한다.
+     */
+    private int totalPrice;
+
     /**
      * 연관 관계 편의 메서드
      * (비즈니스 관점에서 핵심적으로 호출이 많이 되는 곳에 선언하는게 좋다.)
@@ -53,6 +67,7 @@ public class Order {
     public void addOrderItems(OrderItem orderItem) {
         orderItems.add(orderItem);
         orderItem.setOrder(this);
+        totalPrice += orderItem.getTotalPrice();
     }
 
     public void setDelivery(Delivery delivery) {
@@ -92,10 +107,4 @@ public class Order {
             orderItem.cancel();
         }
     }
-
-    public int getTotalPrice() {
-        return orderItems.stream()
-                .mapToInt(OrderItem::getTotalPrice)
-                .sum();
-    }
 }
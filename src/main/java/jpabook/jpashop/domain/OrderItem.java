@@ -7,6 +7,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.core.OrderComparator;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -16,7 +18,10 @@ import static javax.persistence.FetchType.*;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_item_seq")
+    @GenericGenerator(name = "order_item_seq", strategy = "jpabook.jpashop.config.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "order_item_seq"))
     @Column(name = "order_item_id")
     private Long id;
 
@@ -55,4 +60,16 @@ public class OrderItem {
         item.removeStock(count);
         return orderItem;
     }
+
+    /**
+     * 재고를 DB에서 원자적으로 차감하는 주문용 생성 메서드
+     * 재고 차감은 ItemRepository.decreaseStock()이 담당하므로 엔티티의 재고는 건드리지 않는다.
+     */
+    public static OrderItem createOrderItemWithoutStock(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
 }
@@ -3,9 +3,36 @@ package jpabook.jpashop.domain;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Getter @Setter
 public class OrderSearch {
     private String memberName;
     private OrderStatus orderStatus;
+
+    // 회원 이름 색인으로 찾은 회원 id (null이면 이름 LIKE 검색), OrderService가 채운다. (요청 파라미터 값은 무시)
+    private List<Long> memberIds;
+
+    // 주문일 범위 [from, to)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateTo;
+
+    // 이 상품을 포함한 주문
+    private Long itemId;
+
+    // 주문 금액 범위 (이상, 이하)
+    private Integer minPrice;
+    private Integer maxPrice;
+
+    private DeliveryStatus deliveryStatus;
+
+    private OrderSort sort = OrderSort.ORDER_DATE_DESC;
+
+    // 최대 1000건
+    private int limit = 1000;
 }
@@ -0,0 +1,11 @@
+package jpabook.jpashop.domain;
+
+/**
+ * 주문 검색 정렬, 같은 값이면 주문 id로 순서를 고정한다.
+ */
+public enum OrderSort {
+    ORDER_DATE_DESC,
+    ORDER_DATE_ASC,
+    TOTAL_PRICE_DESC,
+    TOTAL_PRICE_ASC
+}
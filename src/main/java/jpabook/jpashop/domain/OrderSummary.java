@@ -0,0 +1,56 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 조회용 읽기 모델 (order_summary)
+ * 주문 목록 화면에 필요한 값을 주문 단위로 미리 펼쳐 두어 조인 없이 한 테이블만 읽는다.
+ * 주문/취소/회원 이름 변경 시 같은 트랜잭션 안에서 함께 갱신되고,
+ * 어긋났을 때는 OrderSummaryRepository.rebuild()로 다시 만든다.
+ */
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_order_date_id", columnList = "orderDate, order_id"),
+        @Index(name = "idx_order_summary_member_id", columnList = "memberId")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    private Long memberId;
+    private String memberName;
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Embedded
+    private Address address;
+
+    private int itemCount;
+    private int totalPrice;
+
+    /**
+     * 생성 메서드
+     */
+    public static OrderSummary of(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.id = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        summary.orderDate = order.getOrderDate();
+        summary.status = order.getStatus();
+        summary.address = order.getDelivery().getAddress();
+        summary.itemCount = order.getOrderItems().size();
+        summary.totalPrice = order.getTotalPrice();
+        return summary;
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 저널에서 읽은 이벤트와 그 위치
+ * 다음에 이어서 읽으려면 nextOffset부터 읽는다.
+ */
+@Getter
+@AllArgsConstructor
+public class JournalRecord {
+    private final long offset;
+    private final long nextOffset;
+    private final OrderEvent event;
+}
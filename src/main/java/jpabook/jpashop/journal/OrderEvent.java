@@ -0,0 +1,53 @@
+package jpabook.jpashop.journal;
+
+import jpabook.jpashop.domain.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * 주문 이벤트 (저널에 기록되는 단위)
+ * 저널에는 고정 길이 바이너리로 기록한다. (type 1 + orderId 8 + memberId 8 + totalPrice 4 + occurredAt 8)
+ */
+@Getter
+@AllArgsConstructor
+public class OrderEvent {
+    static final int SIZE = 1 + Long.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final OrderEventType type;
+    private final Long orderId;
+    private final Long memberId;
+    private final int totalPrice;
+    private final Instant occurredAt;
+
+    public static OrderEvent placed(Order order) {
+        return of(OrderEventType.PLACED, order);
+    }
+
+    public static OrderEvent cancelled(Order order) {
+        return of(OrderEventType.CANCELLED, order);
+    }
+
+    private static OrderEvent of(OrderEventType type, Order order) {
+        return new OrderEvent(type, order.getId(), order.getMember().getId(), order.getTotalPrice(), Instant.now());
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.put((byte) type.ordinal());
+        buffer.putLong(orderId);
+        buffer.putLong(memberId);
+        buffer.putInt(totalPrice);
+        buffer.putLong(occurredAt.toEpochMilli());
+    }
+
+    static OrderEvent readFrom(ByteBuffer buffer) {
+        OrderEventType type = OrderEventType.values()[buffer.get()];
+        long orderId = buffer.getLong();
+        long memberId = buffer.getLong();
+        int totalPrice = buffer.getInt();
+        Instant occurredAt = Instant.ofEpochMilli(buffer.getLong());
+        return new OrderEvent(type, orderId, memberId, totalPrice, occurredAt);
+    }
+}
@@ -0,0 +1,5 @@
+package jpabook.jpashop.journal;
+
+public enum OrderEventType {
+    PLACED, CANCELLED
+}
@@ -0,0 +1,386 @@
+package jpabook.jpashop.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 주문 이벤트 저널 (추가만 가능한 메모리 맵 세그먼트 로그)
+ * <p>
+ * - 레코드: [길이 4][CRC32 4][OrderEvent]. 길이를 마지막에 써서 쓰다 만 레코드는 보이지 않는다.
+ * - 세그먼트: {시작 오프셋}.log 파일을 segmentSize 만큼 미리 만들어 통째로 매핑한다.
+ * 레코드가 들어갈 자리가 없으면 다음 세그먼트(시작 오프셋 = 이전 시작 + 크기)로 넘어간다.
+ * - 오프셋: 전체 로그에서의 바이트 위치. 소비자는 마지막으로 받은 nextOffset부터 이어서 읽는다.
+ * - 그룹 커밋: append()는 매핑된 메모리에 쓰기만 하고, 플러셔 스레드가 flushIntervalMillis 마다
+ * 그 사이에 쌓인 레코드를 force() 한 번으로 디스크에 내린다. syncCommit이면 커밋 후 자기 레코드가 내려갈 때까지 기다린다.
+ * - 읽기: 디스크에 내려간(durable) 레코드만 매핑된 버퍼에서 바로 읽는다. DB를 조회하지 않는다.
+ * <p>
+ * 이벤트는 DB 커밋 후에 기록하므로 커밋과 기록 사이에 프로세스가 죽으면 그 이벤트는 빠진다.
+ * <p>
+ * jpashop.journal.enabled=true 일 때만 파일을 연다. 꺼져 있으면 기록하지 않고 읽으면 빈 결과를 준다.
+ * 한 디렉토리는 한 프로세스만 쓸 수 있다. (디렉토리의 .lock 파일 잠금)
+ */
+@Slf4j
+@Component
+public class OrderJournal {
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int RECORD_SIZE = HEADER_SIZE + OrderEvent.SIZE;
+    private static final String SUFFIX = ".log";
+    private static final String LOCK_FILE = ".lock";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMillis;
+    private final boolean syncCommit;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object durableLock = new Object();
+    private Segment current;
+    private long writeOffset;
+    private volatile long durableOffset;
+    private ScheduledExecutorService flusher;
+    private FileChannel lockChannel;
+
+    public OrderJournal(@Value("${jpashop.journal.enabled:false}") boolean enabled,
+                        @Value("${jpashop.journal.dir:${java.io.tmpdir}/jpashop-journal}") String directory,
+                        @Value("${jpashop.journal.segment-size:67108864}") int segmentSize,
+                        @Value("${jpashop.journal.flush-interval-ms:10}") long flushIntervalMillis,
+                        @Value("${jpashop.journal.sync-commit:false}") boolean syncCommit) {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("segment-size는 레코드 크기(" + RECORD_SIZE + ") 이상이어야 합니다.");
+        }
+
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.syncCommit = syncCommit;
+    }
+
+    /**
+     * 기존 세그먼트를 다시 매핑하고 마지막 세그먼트에서 유효한 레코드의 끝을 찾아 이어서 쓴다.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        lock();
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long baseOffset = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            segments.put(baseOffset, Segment.open(file, baseOffset, 0));
+        }
+
+        if (segments.isEmpty()) {
+            current = createSegment(0);
+            writeOffset = 0;
+        } else {
+            current = segments.lastEntry().getValue();
+            writeOffset = current.baseOffset + current.recover();
+        }
+        durableOffset = writeOffset;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        log.info("order journal opened: dir={}, segments={}, offset={}", directory, segments.size(), writeOffset);
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (lockChannel.tryLock() != null) {
+                return;
+            }
+        } catch (OverlappingFileLockException e) {
+            // 같은 JVM의 다른 인스턴스가 잡고 있다.
+        }
+
+        lockChannel.close();
+        throw new IllegalStateException("다른 프로세스가 주문 저널을 사용 중입니다. dir=" + directory);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        flusher.shutdown();
+        flush();
+
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        lockChannel.close();
+    }
+
+    /**
+     * 트랜잭션이 있으면 커밋 후에, 없으면 바로 기록한다.
+     * 커밋된 주문의 이벤트 기록이 실패해도 주문 요청은 실패시키지 않고 로그를 남긴다.
+     */
+    public void appendAfterCommit(OrderEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendAndWait(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    appendAndWait(event);
+                } catch (RuntimeException e) {
+                    log.error("order event lost: type={}, orderId={}", event.getType(), event.getOrderId(), e);
+                }
+            }
+        });
+    }
+
+    private void appendAndWait(OrderEvent event) {
+        long end = append(event) + RECORD_SIZE;
+        if (syncCommit) {
+            awaitDurable(end);
+        }
+    }
+
+    /**
+     * @return 기록된 레코드의 오프셋
+     */
+    public synchronized long append(OrderEvent event) {
+        if (!enabled) {
+            throw new IllegalStateException("주문 저널이 꺼져 있습니다.");
+        }
+
+        int position = (int) (writeOffset - current.baseOffset);
+        if (position + RECORD_SIZE > current.capacity()) {
+            roll();
+            position = 0;
+        }
+
+        MappedByteBuffer buffer = current.buffer;
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(position + HEADER_SIZE);
+        event.writeTo(payload);
+
+        buffer.putInt(position + Integer.BYTES, crc(buffer, position + HEADER_SIZE, OrderEvent.SIZE));
+        buffer.putInt(position, OrderEvent.SIZE);
+
+        long offset = writeOffset;
+        writeOffset += RECORD_SIZE;
+        return offset;
+    }
+
+    /**
+     * 현재 세그먼트를 디스크에 내리고 다음 세그먼트로 넘어간다.
+     */
+    private void roll() {
+        current.buffer.force();
+        current = createSegment(current.baseOffset + current.capacity());
+        writeOffset = current.baseOffset;
+    }
+
+    private Segment createSegment(long baseOffset) {
+        try {
+            Segment segment = Segment.open(directory.resolve(String.format("%020d%s", baseOffset, SUFFIX)), baseOffset, segmentSize);
+            segments.put(baseOffset, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 마지막 flush 이후 기록된 레코드를 한 번에 디스크에 내린다. (그룹 커밋)
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        long end;
+        Segment segment;
+        synchronized (this) {
+            end = writeOffset;
+            segment = current;
+        }
+
+        if (end == durableOffset) {
+            return;
+        }
+
+        segment.buffer.force();
+
+        synchronized (durableLock) {
+            durableOffset = end;
+            durableLock.notifyAll();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("order journal flush failed", e);
+        }
+    }
+
+    private void awaitDurable(long offset) {
+        synchronized (durableLock) {
+            while (durableOffset < offset) {
+                try {
+                    durableLock.wait(flushIntervalMillis * 10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public long getDurableOffset() {
+        return durableOffset;
+    }
+
+    /**
+     * offset부터 최대 limit 개의 레코드를 읽는다. 디스크에 내려간 레코드까지만 읽는다.
+     * offset은 0 또는 이전에 받은 nextOffset이어야 한다.
+     */
+    public List<JournalRecord> read(long offset, int limit) {
+        List<JournalRecord> records = new ArrayList<>();
+        long end = durableOffset;
+        long position = offset;
+
+        while (records.size() < limit && position < end) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+            if (entry == null) {
+                throw new IllegalArgumentException("잘못된 오프셋입니다. offset=" + offset);
+            }
+
+            Segment segment = entry.getValue();
+            int index = (int) (position - segment.baseOffset);
+
+            // 레코드 크기가 고정이므로 세그먼트 안에서 레코드 크기의 배수가 아니면 레코드 중간이다.
+            if (index % RECORD_SIZE != 0) {
+                throw new IllegalArgumentException("잘못된 오프셋입니다. offset=" + position);
+            }
+
+            // 레코드 하나가 들어가지 않는 세그먼트 끝의 남은 공간만 건너뛴다. (append()가 여기서 다음 세그먼트로 넘어간다)
+            if (index + RECORD_SIZE > segment.capacity()) {
+                position = segment.baseOffset + segment.capacity();
+                continue;
+            }
+
+            int length = segment.buffer.getInt(index);
+            if (length != OrderEvent.SIZE
+                    || segment.buffer.getInt(index + Integer.BYTES) != crc(segment.buffer, index + HEADER_SIZE, length)) {
+                throw new IllegalArgumentException("잘못된 오프셋입니다. offset=" + position);
+            }
+
+            ByteBuffer payload = segment.buffer.duplicate();
+            payload.position(index + HEADER_SIZE);
+
+            long nextOffset = position + HEADER_SIZE + length;
+            records.add(new JournalRecord(position, nextOffset, OrderEvent.readFrom(payload)));
+            position = nextOffset;
+        }
+
+        return records;
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int length) {
+        ByteBuffer region = buffer.duplicate();
+        region.limit(from + length).position(from);
+
+        CRC32 crc = new CRC32();
+        crc.update(region);
+        return (int) crc.getValue();
+    }
+
+    private static class Segment {
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * @param size 새로 만들 세그먼트 크기, 0이면 기존 파일 크기
+         */
+        static Segment open(Path file, long baseOffset, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long capacity = size > 0 ? size : channel.size();
+            return new Segment(baseOffset, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        /**
+         * 처음부터 CRC가 맞는 레코드를 따라가서 마지막으로 완전히 기록된 위치를 찾는다.
+         */
+        int recover() {
+            int position = 0;
+            while (position + HEADER_SIZE <= capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_SIZE + length > capacity()
+                        || buffer.getInt(position + Integer.BYTES) != crc(buffer, position + HEADER_SIZE, length)) {
+                    break;
+                }
+                position += HEADER_SIZE + length;
+            }
+            return position;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package jpabook.jpashop.monitor;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 동적 검색 쿼리의 조건 조합(shape)별 실행 횟수와 지연 시간
+ * 어떤 조합이 느린지 보고 인덱스를 추가할 때 참고한다.
+ */
+@Component
+public class QueryShapeStatistics {
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+    public void record(String shape, long nanos) {
+        shapes.computeIfAbsent(shape, key -> new Shape()).record(nanos);
+    }
+
+    /**
+     * 평균 지연 시간이 긴 순서
+     */
+    public List<ShapeSnapshot> snapshot() {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(ShapeSnapshot::getAvgMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static class Shape {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        ShapeSnapshot snapshot(String shape) {
+            return new ShapeSnapshot(shape, count.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+
+    @Getter
+    public static class ShapeSnapshot {
+        private final String shape;
+        private final long count;
+        private final double avgMillis;
+        private final double maxMillis;
+
+        ShapeSnapshot(String shape, long count, long totalNanos, long maxNanos) {
+            this.shape = shape;
+            this.count = count;
+            this.avgMillis = count == 0 ? 0 : (double) totalNanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+            this.maxMillis = (double) maxNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
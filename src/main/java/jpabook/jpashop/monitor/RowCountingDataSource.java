@@ -0,0 +1,96 @@
+package jpabook.jpashop.monitor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * 읽은 로우(ResultSet.next())와 바뀐 로우(executeUpdate/executeBatch 결과)를 현재 요청의 SqlStatistics에 더한다.
+ * 하이버네이트 세션 이벤트에는 로우 수가 없으므로 DataSource -> Connection -> Statement -> ResultSet 을 프록시로 감싼다.
+ * unwrap()은 원본 객체를 돌려주므로 그걸로 실행한 SQL은 세지 않는다.
+ */
+public final class RowCountingDataSource {
+
+    private RowCountingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        Class<?>[] types = dataSource instanceof AutoCloseable
+                ? new Class<?>[]{DataSource.class, AutoCloseable.class}
+                : new Class<?>[]{DataSource.class};
+        return (DataSource) proxy(dataSource, types);
+    }
+
+    private static Object proxy(Object target, Class<?>... types) {
+        return Proxy.newProxyInstance(RowCountingDataSource.class.getClassLoader(), types, new Handler(target));
+    }
+
+    private static class Handler implements InvocationHandler {
+        private final Object target;
+
+        Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            Class<?> returnType = method.getReturnType();
+            if (result instanceof Connection && returnType == Connection.class
+                    || result instanceof Statement && Statement.class.isAssignableFrom(returnType)
+                    || result instanceof ResultSet && returnType == ResultSet.class) {
+                return proxy(result, returnType);
+            }
+
+            if (target instanceof ResultSet) {
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    addRows(1);
+                }
+            } else if (target instanceof Statement) {
+                countUpdated(method.getName(), result);
+            }
+            return result;
+        }
+
+        private void countUpdated(String methodName, Object result) {
+            if (methodName.equals("executeUpdate") || methodName.equals("executeLargeUpdate")) {
+                addRows(((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    addRows(Math.max(count, 0));
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    addRows(Math.max(count, 0));
+                }
+            }
+        }
+
+        private void addRows(long count) {
+            SqlStatistics statistics = SqlStatistics.current();
+            if (statistics != null && count > 0) {
+                statistics.addRows(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.monitor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드 하나가 요청당 실행해도 되는 최대 SQL statement 수
+ * N+1 문제가 다시 생기면 예산을 넘기게 되어 경고 로그가 남는다.
+ * (jpashop.sql.budget-strict=true 면 요청이 실패한다)
+ * <p>
+ * 예산은 응답 바디를 쓰기 직전(SqlBudgetResponseAdvice)까지 실행된 SQL만 센다.
+ * 엔티티를 그대로 반환해서 직렬화 중에 지연 로딩이 일어나면 그 SQL은 세지 않으므로,
+ * 예산은 DTO로 변환해서 반환하는 API에만 의미가 있다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+    int value();
+}
@@ -0,0 +1,7 @@
+package jpabook.jpashop.monitor;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
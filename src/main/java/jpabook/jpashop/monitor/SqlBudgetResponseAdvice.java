@@ -0,0 +1,59 @@
+package jpabook.jpashop.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 응답 바디를 쓰기 직전에 지금까지 실행된 SQL 통계를 응답 헤더로 내려주고, @SqlBudget 예산을 검사한다.
+ * 바디를 쓰기 시작하면 헤더를 바꿀 수 없으므로 인터셉터의 postHandle이 아닌 여기서 처리한다.
+ * 따라서 이후 직렬화 중에 일어나는 지연 로딩 SQL은 헤더와 예산 검사에 포함되지 않는다. (엔티티를 반환하는 API 주의)
+ */
+@Slf4j
+@ControllerAdvice
+public class SqlBudgetResponseAdvice implements ResponseBodyAdvice<Object> {
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String JDBC_TIME_HEADER = "X-Sql-Jdbc-Millis";
+
+    @Value("${jpashop.sql.budget-strict:false}")
+    private boolean strict;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics == null) {
+            return body;
+        }
+
+        response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+        response.getHeaders().set(ROWS_HEADER, String.valueOf(statistics.getRows()));
+        response.getHeaders().set(JDBC_TIME_HEADER, String.valueOf(statistics.getJdbcMillis()));
+
+        SqlBudget budget = returnType.getMethodAnnotation(SqlBudget.class);
+        if (budget != null && statistics.getStatements() > budget.value()) {
+            String message = String.format("%s exceeded sql budget: %d statements (budget %d)",
+                    request.getURI().getPath(), statistics.getStatements(), budget.value());
+
+            if (strict) {
+                throw new SqlBudgetExceededException(message);
+            }
+            log.warn(message);
+        }
+
+        return body;
+    }
+}
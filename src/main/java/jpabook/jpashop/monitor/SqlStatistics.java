@@ -0,0 +1,89 @@
+package jpabook.jpashop.monitor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 하나 동안 실행된 SQL 통계 (statement 수, 읽고 쓴 로우 수, JDBC 실행 시간)
+ * 요청을 처리하는 스레드에 묶어두고 하이버네이트 세션 이벤트와 JDBC 프록시에서 누적한다.
+ * 요청이 다른 스레드에 일을 맡기면 wrap()으로 감싸서 그 스레드의 SQL도 같은 통계에 더한다. (그래서 카운터는 LongAdder)
+ */
+public class SqlStatistics {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder jdbcNanos = new LongAdder();
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return 현재 스레드에서 수집 중인 통계, 수집 중이 아니면 null
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 호출한 스레드의 통계를 작업을 실행하는 스레드에도 묶는다. (TaskDecorator로 사용)
+     */
+    public static Runnable wrap(Runnable task) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return task;
+        }
+
+        return () -> {
+            SqlStatistics previous = CURRENT.get();
+            CURRENT.set(statistics);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    void addStatement() {
+        statements.increment();
+    }
+
+    void addRows(long count) {
+        rows.add(count);
+    }
+
+    void addJdbcTime(long nanos) {
+        jdbcNanos.add(nanos);
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    /**
+     * 조회한 로우 수 + INSERT/UPDATE/DELETE로 바뀐 로우 수
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.sum();
+    }
+
+    public long getJdbcMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getJdbcNanos());
+    }
+}
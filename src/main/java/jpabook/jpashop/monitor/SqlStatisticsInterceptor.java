@@ -0,0 +1,70 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 시작 시 SQL 통계 수집을 시작하고, 요청이 끝나면 정리한다.
+ * 요청 하나당 statement 수, 로우 수, JDBC 시간을 uri 패턴별 메트릭(jpashop.sql.*)으로 남긴다.
+ * http.server.requests 와 같은 uri 태그를 쓰므로 지연시간과 나란히 비교할 수 있다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlStatisticsInterceptor implements HandlerInterceptor {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatistics.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            log.debug("{} {} sql statements={}, rows={}, jdbc time={}ms", request.getMethod(), request.getRequestURI(),
+                    statistics.getStatements(), statistics.getRows(), statistics.getJdbcMillis());
+            record(request, statistics);
+        }
+
+        SqlStatistics.clear();
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+        DistributionSummary.builder("jpashop.sql.statements")
+                .description("SQL statements per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+
+        DistributionSummary.builder("jpashop.sql.rows")
+                .description("Rows read or written per request")
+                .baseUnit("rows")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getRows());
+
+        Timer.builder("jpashop.sql.jdbc")
+                .description("JDBC execution time per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+}
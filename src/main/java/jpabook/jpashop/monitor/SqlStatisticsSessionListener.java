@@ -0,0 +1,46 @@
+package jpabook.jpashop.monitor;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * 하이버네이트 세션마다 생성되어 JDBC 이벤트를 현재 요청의 SqlStatistics에 누적한다.
+ * (hibernate.session.events.auto 로 등록된다)
+ */
+public class SqlStatisticsSessionListener extends BaseSessionEventListener {
+    private long executeStart;
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.addStatement();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        addJdbcTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        addJdbcTime();
+    }
+
+    private void addJdbcTime() {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.addJdbcTime(System.nanoTime() - executeStart);
+        }
+    }
+}
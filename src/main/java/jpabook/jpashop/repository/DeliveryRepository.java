@@ -0,0 +1,42 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class DeliveryRepository {
+    private final EntityManager em;
+
+    public Delivery findOne(Long id) {
+        return em.find(Delivery.class, id);
+    }
+
+    /**
+     * 배송 상태를 엔티티 로딩 없이 UPDATE 한 번으로 바꾼다.
+     * 이미 그 상태인 배송과 취소된 주문의 배송은 건너뛴다.
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 이미 조회한 Delivery가 옛 상태로 남지 않도록 실행 후 비운다.
+     * (쓰기 지연된 변경은 AUTO 플러시 모드에서 UPDATE 전에 먼저 반영된다)
+     *
+     * @return 상태가 바뀐 로우 수
+     */
+    public int bulkUpdateStatus(List<Long> deliveryIds, DeliveryStatus status) {
+        int updated = em.createQuery("update Delivery d set d.status = :status" +
+                        " where d.id in :deliveryIds" +
+                        " and (d.status is null or d.status <> :status)" +
+                        " and not exists (select o.id from Order o where o.delivery = d and o.status = :cancel)")
+                .setParameter("status", status)
+                .setParameter("deliveryIds", deliveryIds)
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .executeUpdate();
+
+        em.clear();
+        return updated;
+    }
+}
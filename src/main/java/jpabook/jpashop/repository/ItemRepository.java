@@ -2,14 +2,25 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import java.util.List;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
+    /**
+     * 어떤 엔티티 테이블과도 겹치지 않는 쿼리 스페이스 (재고 UPDATE가 2차 캐시 리전 전체를 비우지 않게 한다)
+     */
+    private static final String STOCK_QUERY_SPACE = "item_stock";
+
     private final EntityManager em;
 
     public void save(Item item) {
@@ -20,8 +31,78 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    /**
+     * 여러 상품을 한 번에 조회한다. (where item_id in (...) 한 번)
+     * 이미 영속성 컨텍스트에 있는 상품은 쿼리 없이 그대로 사용하고, 없는 id 자리에는 null이 들어간다.
+     */
+    public List<Item> findAllById(List<Long> ids) {
+        return em.unwrap(Session.class)
+                .byMultipleIds(Item.class)
+                .multiLoad(ids);
+    }
+
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
                 .getResultList();
     }
+
+    /**
+     * 재고가 충분할 때만 한 번의 UPDATE로 재고를 차감한다.
+     * 읽고 -> 자바에서 빼고 -> 더티 체킹으로 쓰는 방식은 동시에 주문이 들어오면 갱신이 유실되지만
+     * 조건부 UPDATE는 DB가 원자적으로 처리하므로 유실도, 초과 판매도 없다.
+     * 영속성 컨텍스트를 거치지 않으므로 이미 조회한 Item 엔티티의 재고 값은 갱신되지 않는다.
+     * <p>
+     * JPQL 벌크 UPDATE는 하이버네이트가 item 2차 캐시 리전 전체를 비우므로, 주문이 몰리면 상품 캐시가 계속 비워진다.
+     * 그래서 네이티브 UPDATE에 엔티티와 무관한 쿼리 스페이스(STOCK_QUERY_SPACE)를 지정해서 리전 전체 무효화를 막고
+     * 바뀐 상품 하나만 캐시에서 지운다. (쿼리 캐시의 상품 목록은 id만 담고 있으므로 그대로 써도 된다)
+     *
+     * @return 갱신된 로우 수 (0이면 재고 부족)
+     */
+    public int decreaseStock(Long itemId, int quantity) {
+        int updated = em.createNativeQuery("update item set stock_quantity = stock_quantity - :quantity" +
+                        " where item_id = :itemId and stock_quantity >= :quantity")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+
+        evictAfterStockUpdate(itemId);
+        return updated;
+    }
+
+    /**
+     * 재고를 UPDATE 한 번으로 늘린다. (일괄 취소 시 상품별 합계를 한 번에 되돌린다)
+     * decreaseStock()과 같은 이유로 네이티브 UPDATE + 상품 하나만 캐시에서 지운다.
+     */
+    public int increaseStock(Long itemId, long quantity) {
+        int updated = em.createNativeQuery("update item set stock_quantity = stock_quantity + :quantity" +
+                        " where item_id = :itemId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter("quantity", (int) quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+
+        evictAfterStockUpdate(itemId);
+        return updated;
+    }
+
+    /**
+     * 지금 지우고, 커밋 전에 다른 트랜잭션이 옛 재고로 캐시를 다시 채웠을 수 있으므로 트랜잭션이 끝난 뒤에 한 번 더 지운다.
+     */
+    private void evictAfterStockUpdate(Long itemId) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Item.class, itemId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Item.class, itemId);
+                }
+            });
+        }
+    }
 }
@@ -2,11 +2,20 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepository extends JpaRepository<Member, Long> {
 
-    // select m from Member m where m.name = ?; (findByX: 메서드 이름 중요)
-    List<Member> findByName(String name);
+    // select m.member_id from member m where m.name = ? limit 1; (엔티티를 만들지 않고 존재 여부만 확인)
+    boolean existsByName(String name);
+
+    // 트랜잭션 안에서 사용하고, 사용 후 반드시 close 해야 한다.
+    @Query("select m.name from Member m")
+    Stream<String> streamAllNames();
+
+    // 회원 이름 색인용 (id, name), 사용 후 반드시 close 해야 한다.
+    @Query("select m.id, m.name from Member m")
+    Stream<Object[]> streamAllIdAndNames();
 }
@@ -1,29 +1,42 @@
 package jpabook.jpashop.repository;
 
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.monitor.QueryShapeStatistics;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-import static jpabook.jpashop.domain.QMember.*;
-import static jpabook.jpashop.domain.QOrder.*;
+import static jpabook.jpashop.domain.QDelivery.delivery;
+import static jpabook.jpashop.domain.QMember.member;
+import static jpabook.jpashop.domain.QOrder.order;
+import static jpabook.jpashop.domain.QOrderItem.orderItem;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final char LIKE_ESCAPE = '!';
+
     private final EntityManager em;
+    private final QueryShapeStatistics queryShapeStatistics;
 
     public void save(Order order) {
         em.persist(order);
@@ -33,6 +46,13 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    /**
+     * 쓰기 지연 저장소에 쌓인 INSERT/UPDATE를 지금 보낸다.
+     */
+    public void flush() {
+        em.flush();
+    }
+
     public List<Order> findAllOld(OrderSearch orderSearch) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Order> cq = cb.createQuery(Order.class);
@@ -50,8 +70,7 @@ public class OrderRepository {
         //회원 이름 검색
         if (StringUtils.hasText(orderSearch.getMemberName())) {
             Predicate name =
-                    cb.like(m.<String>get("name"), "%" +
-                            orderSearch.getMemberName() + "%");
+                    cb.like(m.<String>get("name"), containsPattern(orderSearch.getMemberName()), LIKE_ESCAPE);
             criteria.add(name);
         }
 
@@ -60,15 +79,64 @@ public class OrderRepository {
         return query.getResultList();
     }
 
+    /**
+     * 동적 검색
+     * 값이 있는 조건만 where에 넣는다. 조건 조합(shape)이 같으면 QueryDSL이 만드는 JPQL도 같으므로
+     * 하이버네이트 쿼리 플랜 캐시에서 파싱 결과를 재사용한다. 값은 항상 파라미터로 바인딩된다.
+     */
     public List<Order> findAll(OrderSearch orderSearch) {
-        JPAQueryFactory query = new JPAQueryFactory(em);
+        // 빈 IN 절(in ())은 H2, MySQL 모두 문법 오류이고, 어차피 결과가 없다.
+        if (orderSearch.getMemberIds() != null && orderSearch.getMemberIds().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, BooleanExpression> filters = filters(orderSearch);
+        OrderSort sort = sortOf(orderSearch);
+
+        JPAQuery<Order> query = new JPAQueryFactory(em)
+                .selectFrom(order)
+                .join(order.member, member);
+        if (orderSearch.getDeliveryStatus() != null) {
+            query.join(order.delivery, delivery);
+        }
 
-        return query.select(order)
-                .from(order)
-                .join(order.member, member)
-                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()))
-                .limit(1000)
+        long start = System.nanoTime();
+        List<Order> result = query
+                .where(filters.values().toArray(new BooleanExpression[0]))
+                .orderBy(orderBy(sort))
+                .limit(Math.min(Math.max(orderSearch.getLimit(), 1), MAX_SEARCH_RESULTS))
                 .fetch();
+        queryShapeStatistics.record(String.join(",", filters.keySet()) + "|" + sort, System.nanoTime() - start);
+
+        return result;
+    }
+
+    /**
+     * 조건 이름 -> 조건식, 값이 없는 조건은 빠진다.
+     * 이름을 이은 것이 shape가 된다. (예: status,memberName|ORDER_DATE_DESC)
+     * 회원 이름 색인으로 id를 찾은 경우는 memberIds로 구분한다.
+     */
+    private Map<String, BooleanExpression> filters(OrderSearch orderSearch) {
+        Map<String, BooleanExpression> filters = new LinkedHashMap<>();
+        addFilter(filters, "status", statusEq(orderSearch.getOrderStatus()));
+        if (orderSearch.getMemberIds() != null) {
+            addFilter(filters, "memberIds", member.id.in(orderSearch.getMemberIds()));
+        } else {
+            addFilter(filters, "memberName", nameLike(orderSearch.getMemberName()));
+        }
+        addFilter(filters, "orderDateFrom", orderSearch.getOrderDateFrom() == null ? null : order.orderDate.goe(orderSearch.getOrderDateFrom()));
+        addFilter(filters, "orderDateTo", orderSearch.getOrderDateTo() == null ? null : order.orderDate.lt(orderSearch.getOrderDateTo()));
+        addFilter(filters, "itemId", containsItem(orderSearch.getItemId()));
+        addFilter(filters, "minPrice", orderSearch.getMinPrice() == null ? null : order.totalPrice.goe(orderSearch.getMinPrice()));
+        addFilter(filters, "maxPrice", orderSearch.getMaxPrice() == null ? null : order.totalPrice.loe(orderSearch.getMaxPrice()));
+        addFilter(filters, "deliveryStatus", orderSearch.getDeliveryStatus() == null ? null : delivery.status.eq(orderSearch.getDeliveryStatus()));
+        return filters;
+    }
+
+    private static void addFilter(Map<String, BooleanExpression> filters, String name, BooleanExpression filter) {
+        if (filter != null) {
+            filters.put(name, filter);
+        }
     }
 
     private BooleanExpression nameLike(String memberName) {
@@ -76,7 +144,7 @@ public class OrderRepository {
             return null;
         }
 
-        return member.name.like(memberName);
+        return member.name.like(containsPattern(memberName), LIKE_ESCAPE);
     }
 
     private BooleanExpression statusEq(OrderStatus status) {
@@ -87,6 +155,102 @@ public class OrderRepository {
         return order.status.eq(status);
     }
 
+    /**
+     * 주문상품을 조인하면 주문이 중복되므로 exists로 확인한다.
+     */
+    private BooleanExpression containsItem(Long itemId) {
+        if (itemId == null) {
+            return null;
+        }
+
+        return JPAExpressions.selectOne()
+                .from(orderItem)
+                .where(orderItem.order.eq(order), orderItem.item.id.eq(itemId))
+                .exists();
+    }
+
+    private OrderSpecifier<?>[] orderBy(OrderSort sort) {
+        switch (sort) {
+            case ORDER_DATE_ASC:
+                return new OrderSpecifier<?>[]{order.orderDate.asc(), order.id.asc()};
+            case TOTAL_PRICE_DESC:
+                return new OrderSpecifier<?>[]{order.totalPrice.desc(), order.id.desc()};
+            case TOTAL_PRICE_ASC:
+                return new OrderSpecifier<?>[]{order.totalPrice.asc(), order.id.asc()};
+            default:
+                return new OrderSpecifier<?>[]{order.orderDate.desc(), order.id.desc()};
+        }
+    }
+
+    /**
+     * 사용자가 입력한 %, _ 가 와일드카드로 해석되지 않도록 이스케이프한 '포함' 패턴
+     */
+    private static String containsPattern(String value) {
+        StringBuilder pattern = new StringBuilder("%");
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    private OrderSort sortOf(OrderSearch orderSearch) {
+        return orderSearch.getSort() == null ? OrderSort.ORDER_DATE_DESC : orderSearch.getSort();
+    }
+
+    /**
+     * 취소할 수 있는 주문(주문 상태이고 배송 완료 전)을 조회하면서 주문/배송 로우에 쓰기 락을 건다.
+     * 동시에 같은 주문을 취소하거나 배송 완료 처리하는 트랜잭션은 커밋할 때까지 기다린 뒤 바뀐 상태로 다시 판단한다.
+     * 락 순서를 일정하게 하기 위해 id 순으로 조회한다.
+     */
+    public List<Order> findCancelableForUpdate(List<Long> orderIds) {
+        return em.createQuery("select o from Order o" +
+                        " join o.delivery d" +
+                        " where o.id in :orderIds" +
+                        " and o.status = :status" +
+                        " and (d.status is null or d.status <> :comp)" +
+                        " order by o.id", Order.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    /**
+     * 주문들의 상품별 주문 수량 합계 (상품 id 순)
+     */
+    public Map<Long, Long> sumCountByItem(List<Long> orderIds) {
+        List<Object[]> rows = em.createQuery("select oi.item.id, sum(oi.count) from OrderItem oi" +
+                        " where oi.order.id in :orderIds" +
+                        " group by oi.item.id" +
+                        " order by oi.item.id", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        Map<Long, Long> quantities = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            quantities.put((Long) row[0], (Long) row[1]);
+        }
+        return quantities;
+    }
+
+    /**
+     * 주문 상태를 UPDATE 한 번으로 취소로 바꾼다.
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 실행 후 비운다.
+     */
+    public int bulkCancel(List<Long> orderIds) {
+        int updated = em.createQuery("update Order o set o.status = :status where o.id in :orderIds")
+                .setParameter("status", OrderStatus.CANCEL)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+
+        em.clear();
+        return updated;
+    }
+
     public List<Order> findAllWithMemberDelivery() {
         return em.createQuery("select o from Order o " +
                         " join fetch o.member m " +
@@ -115,4 +279,32 @@ public class OrderRepository {
                 .setMaxResults(limit)
                 .getResultList();
     }
+
+    /**
+     * 키셋(seek) 페이징
+     * OFFSET은 앞선 로우를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+     * 마지막으로 읽은 (orderDate, id) 다음부터 읽으면 (orderDate, order_id) 인덱스를 타고
+     * 몇 번째 페이지든 첫 페이지와 같은 비용으로 조회된다.
+     * 커서가 없으면(lastOrderDate == null) 첫 페이지를 조회한다.
+     */
+    public List<Order> findAllWithMemberDelivery(LocalDateTime lastOrderDate, Long lastId, int limit) {
+        String jpql = "select o from Order o " +
+                " join fetch o.member m " +
+                " join fetch o.delivery d ";
+
+        if (lastOrderDate != null) {
+            jpql += " where o.orderDate < :lastOrderDate " +
+                    " or (o.orderDate = :lastOrderDate and o.id < :lastId) ";
+        }
+
+        TypedQuery<Order> query = em.createQuery(jpql + " order by o.orderDate desc, o.id desc", Order.class);
+
+        if (lastOrderDate != null) {
+            query.setParameter("lastOrderDate", lastOrderDate)
+                    .setParameter("lastId", lastId);
+        }
+
+        return query.setMaxResults(limit)
+                .getResultList();
+    }
 }
@@ -0,0 +1,77 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+    private final EntityManager em;
+
+    /**
+     * id를 직접 할당하는 엔티티라 merge(select 후 insert)가 아닌 persist로 저장한다.
+     */
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    /**
+     * (orderDate, id) 키셋 페이징. 첫 페이지는 lastOrderDate를 null로 넘긴다.
+     * (order_date, order_id) 인덱스에서 limit 만큼만 읽는다.
+     */
+    public List<OrderSummary> findPage(LocalDateTime lastOrderDate, Long lastId, int limit) {
+        String jpql = "select s from OrderSummary s";
+        if (lastOrderDate != null) {
+            jpql += " where s.orderDate < :lastOrderDate" +
+                    " or (s.orderDate = :lastOrderDate and s.id < :lastId)";
+        }
+
+        TypedQuery<OrderSummary> query = em.createQuery(jpql + " order by s.orderDate desc, s.id desc", OrderSummary.class);
+        if (lastOrderDate != null) {
+            query.setParameter("lastOrderDate", lastOrderDate)
+                    .setParameter("lastId", lastId);
+        }
+
+        return query.setMaxResults(limit)
+                .getResultList();
+    }
+
+    public int updateStatus(List<Long> orderIds, OrderStatus status) {
+        return em.createQuery("update OrderSummary s set s.status = :status where s.id in :orderIds")
+                .setParameter("status", status)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createQuery("update OrderSummary s set s.memberName = :memberName where s.memberId = :memberId")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * 원본 테이블에서 전체를 다시 만든다. (백필/복구용)
+     */
+    public int rebuild() {
+        em.createNativeQuery("delete from order_summary").executeUpdate();
+
+        return em.createNativeQuery(
+                        "insert into order_summary (order_id, member_id, member_name, order_date, status, city, street, zipcode, item_count, total_price)" +
+                                " select o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode," +
+                                " count(oi.order_item_id), o.total_price" +
+                                " from orders o" +
+                                " join member m on m.member_id = o.member_id" +
+                                " join delivery d on d.delivery_id = o.delivery_id" +
+                                " left join order_item oi on oi.order_id = o.order_id" +
+                                " group by o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode, o.total_price")
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,25 @@
+package jpabook.jpashop.repository.category.query;
+
+import lombok.Data;
+
+@Data
+public class CategoryItemFlatDto {
+    private Long categoryId;
+    private String categoryName;
+    private int depth;
+    private int itemCount;
+
+    private Long itemId;
+    private String itemName;
+    private Integer price;
+
+    public CategoryItemFlatDto(Long categoryId, String categoryName, int depth, int itemCount, Long itemId, String itemName, Integer price) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.depth = depth;
+        this.itemCount = itemCount;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.price = price;
+    }
+}
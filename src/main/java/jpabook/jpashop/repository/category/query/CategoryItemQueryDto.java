@@ -0,0 +1,16 @@
+package jpabook.jpashop.repository.category.query;
+
+import lombok.Data;
+
+@Data
+public class CategoryItemQueryDto {
+    private Long itemId;
+    private String name;
+    private int price;
+
+    public CategoryItemQueryDto(Long itemId, String name, int price) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+    }
+}
@@ -0,0 +1,22 @@
+package jpabook.jpashop.repository.category.query;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CategoryQueryDto {
+    private Long categoryId;
+    private String name;
+    private int depth;
+    private int itemCount;
+    private List<CategoryItemQueryDto> items = new ArrayList<>();
+
+    public CategoryQueryDto(Long categoryId, String name, int depth, int itemCount) {
+        this.categoryId = categoryId;
+        this.name = name;
+        this.depth = depth;
+        this.itemCount = itemCount;
+    }
+}
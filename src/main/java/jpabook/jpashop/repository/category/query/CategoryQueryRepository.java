@@ -0,0 +1,46 @@
+package jpabook.jpashop.repository.category.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryQueryRepository {
+    private final EntityManager em;
+
+    /**
+     * 카테고리 하위 트리(자기 자신 포함)의 카테고리별 상품 목록
+     * 클로저 테이블 덕분에 깊이와 상관없이 쿼리 한 번으로 조회하고,
+     * 카테고리별 상품 수는 저장된 itemCount를 그대로 쓴다.
+     * 상품이 없는 카테고리도 포함되도록 상품은 left join 한다.
+     */
+    public List<CategoryQueryDto> findSubtreeItems(Long categoryId) {
+        List<CategoryItemFlatDto> flats = em.createQuery(
+                        "select new jpabook.jpashop.repository.category.query.CategoryItemFlatDto(c.id, c.name, cc.depth, c.itemCount, i.id, i.name, i.price)" +
+                                " from CategoryClosure cc" +
+                                " join cc.descendant c" +
+                                " left join c.items i" +
+                                " where cc.ancestor.id = :categoryId" +
+                                " order by cc.depth, c.id", CategoryItemFlatDto.class)
+                .setParameter("categoryId", categoryId)
+                .getResultList();
+
+        Map<Long, CategoryQueryDto> result = new LinkedHashMap<>();
+        for (CategoryItemFlatDto flat : flats) {
+            CategoryQueryDto category = result.computeIfAbsent(flat.getCategoryId(),
+                    id -> new CategoryQueryDto(id, flat.getCategoryName(), flat.getDepth(), flat.getItemCount()));
+
+            if (flat.getItemId() != null) {
+                category.getItems().add(new CategoryItemQueryDto(flat.getItemId(), flat.getItemName(), flat.getPrice()));
+            }
+        }
+
+        return new ArrayList<>(result.values());
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 주문 id 순으로 정렬된 OrderFlatDto 로우를 받아서 연속된 로우를 하나의 OrderQueryDto로 묶는다.
+ * groupingBy와 달리 전체 결과를 Map에 담지 않고 주문 하나가 끝날 때마다 downstream으로 넘기므로
+ * 메모리에는 항상 주문 하나만 올라가 있다.
+ * 마지막 주문은 finish()를 호출해야 넘어간다.
+ */
+public class OrderFlatGrouper implements Consumer<OrderFlatDto> {
+    private final Consumer<OrderQueryDto> downstream;
+    private OrderQueryDto current;
+
+    public OrderFlatGrouper(Consumer<OrderQueryDto> downstream) {
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(OrderFlatDto flat) {
+        if (current == null || !Objects.equals(current.getOrderId(), flat.getOrderId())) {
+            finish();
+            current = new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(), flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+        }
+
+        current.getOrderItems().add(new OrderItemQueryDto(flat.getOrderId(), flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+    }
+
+    public void finish() {
+        if (current != null) {
+            downstream.accept(current);
+            current = null;
+        }
+    }
+}
@@ -2,11 +2,21 @@ package jpabook.jpashop.repository.order.query;
 
 import jpabook.jpashop.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +27,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderQueryRepository {
     private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadPoolTaskExecutor orderQueryExecutor;
+
+    @Value("${jpashop.query.chunk-size:100}")
+    private int chunkSize;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders();
@@ -30,7 +45,7 @@ public class OrderQueryRepository {
     }
 
     private List<OrderItemQueryDto> findOrderItems(Long orderId) {
-        return em.createQuery("select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, oi.item.name, oi.orderPrice, oi.count) from OrderItem oi join oi.item i where oi.order.id = :orderId", OrderItemQueryDto.class)
+        return em.createQuery("select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, oi.item.name, oi.orderPrice, oi.count) from OrderItem oi join oi.item i where oi.order.id = :orderId order by oi.id", OrderItemQueryDto.class)
                 .setParameter("orderId", orderId)
                 .getResultList();
     }
@@ -59,12 +74,46 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /**
+     * v4의 주문상품 조회를 병렬로 처리한다.
+     * 주문 id를 chunkSize 단위로 나누고, 각 청크를 전용 스레드 풀에서 IN 쿼리로 조회한 뒤 원래 주문 순서대로 합친다.
+     * 각 작업은 자기 스레드의 읽기 전용 트랜잭션 안에서 실행되므로 EntityManager와 커넥션을 따로 쓴다.
+     * 주문 조회도 스레드 풀에서 실행한다. 요청 스레드에서 조회하면 OSIV가 커넥션을 요청 끝까지 잡은 채로
+     * 작업들을 기다리게 되어, 동시 요청이 커넥션 풀 크기만큼 몰리면 작업들이 커넥션을 얻지 못한다.
+     * (동시에 쓰는 커넥션 수는 jpashop.query.parallelism 으로 제한된다)
+     * 스레드 풀 큐가 가득 차 있으면 RejectedExecutionException을 던진다.
+     */
+    public List<OrderQueryDto> findOrderQueryDtosParallel() {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        List<OrderQueryDto> result = CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> findOrders()), orderQueryExecutor)
+                .join();
+        List<Long> orderIds = toOrderIds(result);
+
+        List<CompletableFuture<List<OrderItemQueryDto>>> futures = new ArrayList<>();
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> findOrderItemMap(chunk)), orderQueryExecutor));
+        }
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = futures.stream()
+                .map(CompletableFuture::join)
+                .flatMap(List::stream)
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), new ArrayList<>())));
+
+        return result;
+    }
+
     private List<OrderItemQueryDto> findOrderItemMap(List<Long> orderIds) {
         List<OrderItemQueryDto> orderItems = em.createQuery(
                         "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, oi.item.name, oi.orderPrice, oi.count) " +
                                 " from OrderItem oi " +
                                 " join oi.item i " +
-                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                                " where oi.order.id in :orderIds" +
+                                " order by oi.id", OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
                 .getResultList();
         return orderItems;
@@ -87,4 +136,31 @@ public class OrderQueryRepository {
                         " join oi.item i", OrderFlatDto.class
         ).getResultList();
     }
+
+    /**
+     * findAllByDtoFlat()과 같은 조회지만 결과를 List에 담지 않고 한 로우씩 consumer에 넘긴다.
+     * FORWARD_ONLY 스크롤과 JDBC fetch size로 드라이버가 fetchSize 만큼씩만 가져오므로
+     * 로우 수와 상관없이 힙 사용량이 일정하다.
+     * 같은 주문의 로우가 연속해서 나오도록 주문 id 순으로 정렬한다.
+     */
+    public void streamAllByDtoFlat(int fetchSize, Consumer<OrderFlatDto> consumer) {
+        Query<OrderFlatDto> query = em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " join o.orderItems oi" +
+                        " join oi.item i" +
+                        " order by o.id", OrderFlatDto.class
+        ).unwrap(Query.class);
+
+        try (ScrollableResults results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept((OrderFlatDto) results.get(0));
+            }
+        }
+    }
 }
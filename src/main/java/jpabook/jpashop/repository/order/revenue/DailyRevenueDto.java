@@ -0,0 +1,18 @@
+package jpabook.jpashop.repository.order.revenue;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DailyRevenueDto {
+    private LocalDate date;
+    private long orderCount;
+    private long revenue;
+
+    public DailyRevenueDto(LocalDate date, long orderCount, long revenue) {
+        this.date = date;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+}
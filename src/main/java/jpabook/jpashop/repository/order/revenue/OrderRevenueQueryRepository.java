@@ -0,0 +1,68 @@
+package jpabook.jpashop.repository.order.revenue;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 매출 집계 조회
+ * 저장된 주문 금액(orders.total_price)을 DB에서 GROUP BY로 집계하므로 주문상품 컬렉션을 로딩하지 않는다.
+ * 매출은 취소되지 않은(ORDER) 주문만 집계한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderRevenueQueryRepository {
+    private final EntityManager em;
+
+    public List<MemberRevenueDto> findRevenueByMember(int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.revenue.MemberRevenueDto(m.id, m.name, count(o), sum(o.totalPrice))" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " where o.status = :status" +
+                                " group by m.id, m.name" +
+                                " order by sum(o.totalPrice) desc", MemberRevenueDto.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * [from, to) 기간의 일별 매출
+     */
+    public List<DailyRevenueDto> findRevenueByDay(LocalDate from, LocalDate to) {
+        List<Object[]> rows = em.createQuery(
+                        "select cast(o.orderDate as date), count(o), sum(o.totalPrice)" +
+                                " from Order o" +
+                                " where o.status = :status" +
+                                " and o.orderDate >= :from and o.orderDate < :to" +
+                                " group by cast(o.orderDate as date)" +
+                                " order by cast(o.orderDate as date)", Object[].class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.atStartOfDay())
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> new DailyRevenueDto(
+                        new java.sql.Date(((Date) row[0]).getTime()).toLocalDate(),
+                        (Long) row[1],
+                        (Long) row[2]))
+                .collect(toList());
+    }
+
+    public List<StatusRevenueDto> findRevenueByStatus() {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.revenue.StatusRevenueDto(o.status, count(o), sum(o.totalPrice))" +
+                                " from Order o" +
+                                " group by o.status", StatusRevenueDto.class)
+                .getResultList();
+    }
+}
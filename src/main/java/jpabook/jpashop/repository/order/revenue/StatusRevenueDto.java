@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository.order.revenue;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+@Data
+public class StatusRevenueDto {
+    private OrderStatus status;
+    private long orderCount;
+    private long revenue;
+
+    public StatusRevenueDto(OrderStatus status, Long orderCount, Long revenue) {
+        this.status = status;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,298 @@
+package jpabook.jpashop.seed;
+
+import jpabook.jpashop.config.PooledSequenceGenerator;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.service.OrderSummaryService;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 테스트 데이터 생성기
+ * jpashop.seed.enabled=true (또는 --spring.profiles.active=seed) 로 실행하면 시작 시점에
+ * 회원, 상품, 주문(배송, 주문상품)을 JDBC 배치 INSERT로 여러 스레드에서 나눠 넣는다.
+ * <p>
+ * - 상품/회원 인기도는 지프 분포를 따른다. (앞쪽 id의 상품/회원에 주문이 몰린다)
+ * - id는 엔티티 시퀀스에서 블록 단위로 받는다. (PooledSequenceGenerator와 같은 방식)
+ * - 배치마다 커밋하므로 영속성 컨텍스트나 커넥션에 데이터가 쌓이지 않는다.
+ * - 마지막에 order_summary를 다시 만든다.
+ * <p>
+ * 단계별 로우 수와 초당 로우 수(rows/s)를 로그로 남긴다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(SeedProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.seed", name = "enabled", havingValue = "true")
+public class DataSeeder implements ApplicationRunner {
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전", "울산"};
+    private static final long ORDER_DATE_RANGE_SECONDS = TimeUnit.DAYS.toSeconds(365);
+    private static final long DELIVERY_DAYS = 3;
+
+    private final SeedProperties properties;
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final OrderSummaryService orderSummaryService;
+    private final AggregateVersions aggregateVersions;
+    private final int allocationSize;
+
+    public DataSeeder(SeedProperties properties, DataSource dataSource, EntityManagerFactory emf,
+                      OrderSummaryService orderSummaryService, AggregateVersions aggregateVersions,
+                      @Value("${jpashop.id.allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.dialect = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.orderSummaryService = orderSummaryService;
+        this.aggregateVersions = aggregateVersions;
+        this.allocationSize = allocationSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        log.info("seeding: members={}, items={}, orders={}, threads={}, batchSize={}",
+                properties.getMembers(), properties.getItems(), properties.getOrders(), properties.getThreads(), properties.getBatchSize());
+
+        long[] memberIds = new long[properties.getMembers()];
+        long[] itemIds = new long[properties.getItems()];
+        int[] itemPrices = new int[properties.getItems()];
+
+        phase("member", memberIds.length, (connection, from, to, random) -> insertMembers(connection, from, to, random, memberIds));
+        phase("item", itemIds.length, (connection, from, to, random) -> insertItems(connection, from, to, random, itemIds, itemPrices));
+
+        ZipfSampler memberSampler = new ZipfSampler(memberIds.length, properties.getMemberSkew());
+        ZipfSampler itemSampler = new ZipfSampler(itemIds.length, properties.getItemSkew());
+        phase("order", properties.getOrders(), (connection, from, to, random) ->
+                insertOrders(connection, from, to, random, memberIds, memberSampler, itemIds, itemPrices, itemSampler));
+
+        orderSummaryService.rebuild();
+        aggregateVersions.bump(Aggregate.values());
+
+        log.info("seeding finished: elapsed={}s", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        /**
+         * @return 넣은 로우 수
+         */
+        long run(Connection connection, int from, int to, Random random) throws SQLException;
+    }
+
+    /**
+     * [0, count) 를 스레드 수만큼 나눠서 병렬로 실행한다.
+     * 스레드마다 커넥션과 난수 생성기를 따로 쓴다. (난수는 randomSeed로 재현 가능)
+     */
+    private void phase(String name, int count, RangeTask task) throws InterruptedException, ExecutionException {
+        int threads = Math.max(1, Math.min(properties.getThreads(), count));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int from = (int) ((long) count * t / threads);
+                int to = (int) ((long) count * (t + 1) / threads);
+                Random random = new Random(properties.getRandomSeed() * 31 + name.hashCode() * 17L + t);
+
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        return task.run(connection, from, to, random);
+                    }
+                }));
+            }
+
+            long rows = 0;
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            log.info("seeded {}: rows={}, elapsed={}ms, rows/s={}", name, rows,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), elapsed == 0 ? 0 : rows * 1_000_000_000L / elapsed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long insertMembers(Connection connection, int from, int to, Random random, long[] memberIds) throws SQLException {
+        try (SequenceBlock ids = sequence(connection, "member_seq");
+             PreparedStatement member = connection.prepareStatement(
+                     "insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)")) {
+            Batch batch = new Batch(connection, member);
+
+            for (int i = from; i < to; i++) {
+                long id = ids.next();
+                memberIds[i] = id;
+
+                member.setLong(1, id);
+                member.setString(2, "seedMember" + i);
+                member.setString(3, CITIES[random.nextInt(CITIES.length)]);
+                member.setString(4, "거리" + random.nextInt(1000));
+                member.setString(5, String.format("%05d", random.nextInt(100_000)));
+                member.addBatch();
+                batch.added(1);
+            }
+            return batch.finish();
+        }
+    }
+
+    private long insertItems(Connection connection, int from, int to, Random random, long[] itemIds, int[] itemPrices) throws SQLException {
+        try (SequenceBlock ids = sequence(connection, "item_seq");
+             PreparedStatement item = connection.prepareStatement(
+                     "insert into item (dtype, item_id, name, price, stock_quantity, author, isbn) values ('I', ?, ?, ?, ?, ?, ?)")) {
+            Batch batch = new Batch(connection, item);
+
+            for (int i = from; i < to; i++) {
+                long id = ids.next();
+                int price = (1 + random.nextInt(50)) * 1000;
+                itemIds[i] = id;
+                itemPrices[i] = price;
+
+                item.setLong(1, id);
+                item.setString(2, "SEED BOOK " + i);
+                item.setInt(3, price);
+                item.setInt(4, 1_000_000);
+                item.setString(5, "저자" + random.nextInt(1000));
+                item.setString(6, String.valueOf(9_000_000_000L + i));
+                item.addBatch();
+                batch.added(1);
+            }
+            return batch.finish();
+        }
+    }
+
+    /**
+     * 주문 하나에 배송 하나, 주문상품 1 ~ maxItemsPerOrder 개
+     * 주문일은 최근 1년 안에서 고르고, 취소되지 않은 주문 중 DELIVERY_DAYS 일이 지난 주문은 배송 완료로 둔다.
+     */
+    private long insertOrders(Connection connection, int from, int to, Random random,
+                              long[] memberIds, ZipfSampler memberSampler,
+                              long[] itemIds, int[] itemPrices, ZipfSampler itemSampler) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+
+        try (SequenceBlock orderIds = sequence(connection, "orders_seq");
+             SequenceBlock deliveryIds = sequence(connection, "delivery_seq");
+             SequenceBlock orderItemIds = sequence(connection, "order_item_seq");
+             PreparedStatement delivery = connection.prepareStatement(
+                     "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)");
+             PreparedStatement order = connection.prepareStatement(
+                     "insert into orders (order_id, member_id, delivery_id, order_date, status, total_price) values (?, ?, ?, ?, ?, ?)");
+             PreparedStatement orderItem = connection.prepareStatement(
+                     "insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)")) {
+            // FK 순서대로 실행한다.
+            Batch batch = new Batch(connection, delivery, order, orderItem);
+
+            for (int i = from; i < to; i++) {
+                long orderId = orderIds.next();
+                long deliveryId = deliveryIds.next();
+                LocalDateTime orderDate = now.minusSeconds((long) (random.nextDouble() * ORDER_DATE_RANGE_SECONDS));
+                boolean canceled = random.nextDouble() < properties.getCancelRate();
+                boolean delivered = !canceled && orderDate.isBefore(now.minusDays(DELIVERY_DAYS));
+
+                int itemCount = 1 + random.nextInt(properties.getMaxItemsPerOrder());
+                int totalPrice = 0;
+                for (int n = 0; n < itemCount; n++) {
+                    int item = itemSampler.sample(random);
+                    int count = 1 + random.nextInt(3);
+                    totalPrice += itemPrices[item] * count;
+
+                    orderItem.setLong(1, orderItemIds.next());
+                    orderItem.setLong(2, itemIds[item]);
+                    orderItem.setLong(3, orderId);
+                    orderItem.setInt(4, itemPrices[item]);
+                    orderItem.setInt(5, count);
+                    orderItem.addBatch();
+                }
+
+                delivery.setLong(1, deliveryId);
+                delivery.setString(2, CITIES[random.nextInt(CITIES.length)]);
+                delivery.setString(3, "거리" + random.nextInt(1000));
+                delivery.setString(4, String.format("%05d", random.nextInt(100_000)));
+                delivery.setString(5, (delivered ? DeliveryStatus.COMP : DeliveryStatus.READY).name());
+                delivery.addBatch();
+
+                order.setLong(1, orderId);
+                order.setLong(2, memberIds[memberSampler.sample(random)]);
+                order.setLong(3, deliveryId);
+                order.setTimestamp(4, Timestamp.valueOf(orderDate));
+                order.setString(5, (canceled ? OrderStatus.CANCEL : OrderStatus.ORDER).name());
+                order.setInt(6, totalPrice);
+                order.addBatch();
+
+                batch.added(2 + itemCount);
+            }
+            return batch.finish();
+        }
+    }
+
+    private SequenceBlock sequence(Connection connection, String sequenceName) throws SQLException {
+        return new SequenceBlock(connection, dialect.getSequenceNextValString(sequenceName), allocationSize);
+    }
+
+    /**
+     * batchSize 로우마다 모든 statement의 배치를 실행하고 커밋한다.
+     */
+    private class Batch {
+        private final Connection connection;
+        private final PreparedStatement[] statements;
+        private long pending;
+        private long rows;
+
+        Batch(Connection connection, PreparedStatement... statements) {
+            this.connection = connection;
+            this.statements = statements;
+        }
+
+        void added(int count) throws SQLException {
+            pending += count;
+            if (pending >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        long finish() throws SQLException {
+            flush();
+            return rows;
+        }
+
+        private void flush() throws SQLException {
+            if (pending == 0) {
+                return;
+            }
+
+            for (PreparedStatement statement : statements) {
+                statement.executeBatch();
+            }
+            connection.commit();
+
+            rows += pending;
+            pending = 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("jpashop.seed")
+public class SeedProperties {
+    private boolean enabled;
+
+    private int members = 100_000;
+    private int items = 10_000;
+    private int orders = 1_000_000;
+    private int maxItemsPerOrder = 5;
+
+    /**
+     * 인기도 지프(Zipf) 지수. 0이면 균등, 클수록 소수의 상품/회원에 주문이 몰린다.
+     */
+    private double itemSkew = 1.1;
+    private double memberSkew = 0.8;
+
+    /**
+     * 전체 주문 중 취소 주문 비율
+     */
+    private double cancelRate = 0.05;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * JDBC 배치 크기 (배치마다 커밋한다)
+     */
+    private int batchSize = 1000;
+
+    private long randomSeed = 42;
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.seed;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 엔티티 시퀀스에서 id 블록을 받아 나눠준다. (PooledSequenceGenerator의 pooled-lo와 같은 방식)
+ * 시퀀스 값 v를 받으면 [v, v + allocationSize) 를 쓴다.
+ * 애플리케이션과 같은 시퀀스를 쓰므로 시드 후 애플리케이션이 만드는 id와 겹치지 않는다.
+ * 스레드마다 따로 만들어 쓴다.
+ */
+class SequenceBlock implements AutoCloseable {
+    private final PreparedStatement nextValue;
+    private final int allocationSize;
+    private long next;
+    private long end;
+
+    SequenceBlock(Connection connection, String nextValueSql, int allocationSize) throws SQLException {
+        this.nextValue = connection.prepareStatement(nextValueSql);
+        this.allocationSize = allocationSize;
+    }
+
+    long next() throws SQLException {
+        if (next == end) {
+            try (ResultSet rs = nextValue.executeQuery()) {
+                rs.next();
+                next = rs.getLong(1);
+                end = next + allocationSize;
+            }
+        }
+        return next++;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        nextValue.close();
+    }
+}
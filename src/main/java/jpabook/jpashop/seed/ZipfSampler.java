@@ -0,0 +1,33 @@
+package jpabook.jpashop.seed;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 0 ~ n-1 중 하나를 순위 k의 가중치가 1 / (k+1)^exponent 가 되도록 뽑는다.
+ * 누적 분포를 미리 만들어두고 이진 탐색으로 뽑으므로 한 번에 O(log n)
+ */
+class ZipfSampler {
+    private final double[] cdf;
+
+    ZipfSampler(int n, double exponent) {
+        cdf = new double[n];
+
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, cdf.length - 1);
+    }
+}
@@ -0,0 +1,51 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Item.Category;
+import jpabook.jpashop.domain.Item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+    private final CategoryRepository categoryRepository;
+    private final ItemRepository itemRepository;
+
+    /**
+     * 카테고리 생성 (parentId가 있으면 그 아래에 붙인다)
+     * 클로저 테이블 경로는 Category에서 영속성 전이로 함께 저장된다.
+     */
+    @Transactional
+    public Long saveCategory(String name, Long parentId) {
+        Category category = Category.createCategory(name);
+
+        if (parentId != null) {
+            Category parent = categoryRepository.findOne(parentId);
+            if (parent == null) {
+                throw new IllegalArgumentException("존재하지 않는 카테고리입니다. parentId=" + parentId);
+            }
+            parent.addChildCategory(category);
+        }
+
+        categoryRepository.save(category);
+        return category.getId();
+    }
+
+    @Transactional
+    public void addItem(Long categoryId, Long itemId) {
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("존재하지 않는 카테고리입니다. categoryId=" + categoryId);
+        }
+
+        Item item = itemRepository.findOne(itemId);
+        if (item == null) {
+            throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + itemId);
+        }
+        category.addItem(item);
+    }
+}
@@ -0,0 +1,95 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.repository.DeliveryRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryService {
+    private final DeliveryRepository deliveryRepository;
+    private final AggregateVersions aggregateVersions;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${jpashop.delivery.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 택배사 피드처럼 대량으로 들어오는 배송 상태 변경
+     * chunkSize 개씩 나눠서 청크마다 트랜잭션 하나, UPDATE 한 번으로 처리한다.
+     * 청크마다 커밋하므로 중간에 실패하면 앞선 청크는 반영된 상태로 남는다. (같은 요청을 다시 보내도 안전하다)
+     * 그래서 주문 버전도 청크가 커밋될 때마다 올린다. 뒤 청크가 실패해도 앞서 커밋된 변경이 304로 가려지지 않는다.
+     */
+    public TransitionResult changeStatus(List<Long> deliveryIds, DeliveryStatus status) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<ChunkReport> chunks = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int from = 0; from < deliveryIds.size(); from += chunkSize) {
+            List<Long> chunk = deliveryIds.subList(from, Math.min(deliveryIds.size(), from + chunkSize));
+
+            long chunkStart = System.nanoTime();
+            Integer updated = tx.execute(s -> {
+                aggregateVersions.bumpAfterCommit(Aggregate.ORDER);
+                return deliveryRepository.bulkUpdateStatus(chunk, status);
+            });
+            chunks.add(new ChunkReport(chunks.size(), chunk.size(), updated, System.nanoTime() - chunkStart));
+        }
+
+        TransitionResult result = new TransitionResult(deliveryIds.size(), chunks, System.nanoTime() - start);
+        log.info("delivery status changed: status={}, requested={}, updated={}, chunks={}, rows/s={}",
+                status, result.getRequested(), result.getUpdated(), chunks.size(), result.getRowsPerSecond());
+        return result;
+    }
+
+    @Getter
+    public static class TransitionResult {
+        private final int requested;
+        private final int updated;
+        private final long elapsedMillis;
+        private final long rowsPerSecond;
+        private final List<ChunkReport> chunks;
+
+        TransitionResult(int requested, List<ChunkReport> chunks, long elapsedNanos) {
+            this.requested = requested;
+            this.updated = chunks.stream().mapToInt(ChunkReport::getUpdated).sum();
+            this.elapsedMillis = elapsedNanos / 1_000_000;
+            this.rowsPerSecond = rowsPerSecond(updated, elapsedNanos);
+            this.chunks = chunks;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ChunkReport {
+        private final int chunk;
+        private final int requested;
+        private final int updated;
+        private final long elapsedMillis;
+        private final long rowsPerSecond;
+
+        ChunkReport(int chunk, int requested, int updated, long elapsedNanos) {
+            this(chunk, requested, updated, elapsedNanos / 1_000_000, rowsPerSecond(updated, elapsedNanos));
+        }
+    }
+
+    /**
+     * 실제로 바뀐 행 기준 처리량. 이미 취소됐거나 없는 배송은 세지 않는다.
+     */
+    private static long rowsPerSecond(int rows, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000L / elapsedNanos;
+    }
+}
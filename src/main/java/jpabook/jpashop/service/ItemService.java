@@ -2,6 +2,8 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Item.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,16 +15,19 @@ import java.util.List;
 @Transactional(readOnly = false)
 public class ItemService {
     private final ItemRepository itemRepository;
+    private final AggregateVersions aggregateVersions;
 
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        aggregateVersions.bumpAfterCommit(Aggregate.ITEM);
     }
 
     @Transactional
     public void updateItem(Long itemId, String name, int price, int stockQuantity) {
         Item findItem = itemRepository.findOne(itemId);
         findItem.changeItem(name, price, stockQuantity);
+        aggregateVersions.bumpAfterCommit(Aggregate.ITEM);
     }
 
     public Item findOne(Long id) {
@@ -0,0 +1,118 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 블룸 필터
+ * mightContain()이 false면 그 이름은 확실히 없으므로 중복 검사 쿼리를 생략할 수 있다.
+ * true면 오탐일 수 있으므로 DB로 확인해야 한다.
+ * <p>
+ * 애플리케이션 시작 후 DB의 모든 이름으로 채우고(warmUp), 가입/이름 변경 시 추가한다.
+ * 블룸 필터는 삭제가 불가능하므로 변경 전 이름은 남아있지만 오탐이 늘어날 뿐 정합성에는 문제가 없다.
+ * 최종 중복 방지는 member.name 유니크 제약조건이 담당한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberNameFilter {
+    private final MemberRepository memberRepository;
+
+    @Value("${jpashop.member.name-filter.expected-insertions:1000000}")
+    private int expectedInsertions;
+
+    @Value("${jpashop.member.name-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private AtomicLongArray bits;
+    private long bitSize;
+    private int hashCount;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        bitSize = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long count;
+        try (Stream<String> names = memberRepository.streamAllNames()) {
+            count = names.mapToLong(name -> {
+                put(name);
+                return 1;
+            }).sum();
+        }
+
+        ready = true;
+        log.info("member name filter warmed up: names={}, bits={}, hashes={}", count, bitSize, hashCount);
+    }
+
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bitSize);
+            long mask = 1L << index;
+            bits.getAndAccumulate((int) (index >>> 6), mask, (current, bit) -> current | bit);
+        }
+    }
+
+    /**
+     * 워밍업 전에는 판단할 수 없으므로 항상 true (DB로 확인)
+     */
+    public boolean mightContain(String name) {
+        if (!ready || name == null) {
+            return true;
+        }
+
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a 64bit + murmur3 finalizer
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,149 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 바이그램(2-gram) 역색인
+ * LIKE '%keyword%'는 인덱스를 탈 수 없어 member 전체를 읽는다.
+ * 이름을 두 글자씩 잘라 회원 id 목록을 만들어 두고, 검색어의 바이그램 목록을 교집합한 뒤
+ * 실제 이름에 검색어가 포함되는지 확인해서 회원 id를 돌려준다. (접두/중간 일치 모두 지원)
+ * <p>
+ * 애플리케이션 시작 후 DB의 모든 회원으로 채우고(warmUp), 가입/이름 변경은 커밋 후에 반영한다.
+ * 롤백된 변경이 색인에 남지 않도록 하기 위해서다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberNameIndex {
+    private final MemberRepository memberRepository;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        try (Stream<Object[]> rows = memberRepository.streamAllIdAndNames()) {
+            rows.forEach(row -> put((Long) row[0], (String) row[1]));
+        }
+
+        ready = true;
+        log.info("member name index warmed up: members={}, grams={}", names.size(), postings.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 트랜잭션이 있으면 커밋 후에, 없으면 바로 반영한다.
+     */
+    public void putAfterCommit(Long memberId, String name) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(memberId, name);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(memberId, name);
+            }
+        });
+    }
+
+    public void put(Long memberId, String name) {
+        if (memberId == null || name == null) {
+            return;
+        }
+
+        String old = names.put(memberId, name);
+        if (old != null && !old.equals(name)) {
+            for (String gram : grams(old)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(memberId);
+                }
+            }
+        }
+
+        for (String gram : grams(name)) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(memberId);
+        }
+    }
+
+    /**
+     * 이름에 keyword가 포함된 회원 id
+     * 가장 짧은 바이그램 목록부터 교집합해서 후보를 줄이고, 실제 이름으로 한 번 더 확인한다.
+     * 한 글자 검색어는 바이그램을 만들 수 없으므로 메모리의 이름 목록을 훑는다.
+     */
+    public List<Long> findIds(String keyword) {
+        if (keyword.length() < 2) {
+            return scan(keyword);
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(keyword)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> result = new ArrayList<>();
+        for (Long id : lists.get(0)) {
+            if (containsAll(lists, id) && contains(id, keyword)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private List<Long> scan(String keyword) {
+        List<Long> result = new ArrayList<>();
+        names.forEach((id, name) -> {
+            if (name.contains(keyword)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    private boolean containsAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean contains(Long id, String keyword) {
+        String name = names.get(id);
+        return name != null && name.contains(keyword);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 2 <= value.length(); i++) {
+            grams.add(value.substring(i, i + 2));
+        }
+        return grams;
+    }
+}
@@ -2,10 +2,14 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Required;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +20,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MemberService {
     private final MemberRepository memberRepository;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final AggregateVersions aggregateVersions;
 
     /**
      * 회원 가입
@@ -24,21 +32,47 @@ public class MemberService {
     public Long join(Member member) {
         validateDuplicatedMember(member);
         memberRepository.save(member);
+        flushUniqueName();
+
+        memberNameFilter.put(member.getName());
+        memberNameIndex.putAfterCommit(member.getId(), member.getName());
+        aggregateVersions.bumpAfterCommit(Aggregate.MEMBER);
         return member.getId();
     }
 
+    /**
+     * 블룸 필터가 처음 보는 이름이라고 하면 쿼리 없이 통과시키고,
+     * 있을 수도 있다고 하면 exists 쿼리로 확인한다. (회원 목록을 조회하지 않는다)
+     * 동시에 같은 이름으로 가입하는 경우는 유니크 제약조건이 막는다.
+     */
     private void validateDuplicatedMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-
-        if (findMembers.size() > 0) {
+        if (memberNameFilter.mightContain(member.getName()) && memberRepository.existsByName(member.getName())) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
     }
 
+    /**
+     * 유니크 제약조건 위반을 커밋 시점이 아닌 여기서 확인해서 중복 회원 예외로 바꾼다.
+     */
+    private void flushUniqueName() {
+        try {
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+    }
+
     @Transactional
     public void update(Long id, String name) {
         Member member = memberRepository.findById(id).get();
         member.changeMember(name);
+        flushUniqueName();
+        orderSummaryRepository.updateMemberName(id, name);
+
+        memberNameFilter.put(name);
+        memberNameIndex.putAfterCommit(id, name);
+        // 주문 목록에도 회원 이름이 보이므로 주문 버전도 올린다.
+        aggregateVersions.bumpAfterCommit(Aggregate.MEMBER, Aggregate.ORDER);
     }
 
     /**
@@ -2,14 +2,33 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.Item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.journal.OrderEvent;
+import jpabook.jpashop.journal.OrderJournal;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 @Service
 @Transactional(readOnly = true)
@@ -18,6 +37,13 @@ public class OrderService {
     private final MemberRepository memberRepository;
     private final OrderRepository orderRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final MemberNameIndex memberNameIndex;
+    private final AggregateVersions aggregateVersions;
+    private final OrderJournal orderJournal;
+
+    @Value("${jpashop.member.name-index.max-ids:1000}")
+    private int maxMemberIds;
 
     // 주문
     @Transactional
@@ -35,20 +61,183 @@ public class OrderService {
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
 
-        orderRepository.save(order);
+        saveOrder(order);
+        return order.getId();
+    }
+
+    /**
+     * 장바구니 주문 (여러 상품을 한 주문으로)
+     * 상품은 한 번의 IN 쿼리로 모두 조회하고, 주문/배송/주문상품 INSERT와 재고 UPDATE는
+     * hibernate.jdbc.batch_size + order_inserts/order_updates 설정으로 커밋 시점에 테이블별로 묶여서 나간다.
+     * 따라서 주문 줄 수와 상관없이 DB 왕복 횟수가 일정하다.
+     */
+    @Transactional
+    public Long order(Long memberId, List<OrderLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("주문할 상품이 없습니다.");
+        }
+        for (OrderLine line : lines) {
+            if (line.getItemId() == null || line.getCount() <= 0) {
+                throw new IllegalArgumentException("잘못된 주문 상품입니다. itemId=" + line.getItemId() + ", count=" + line.getCount());
+            }
+        }
+
+        Member member = memberRepository.findById(memberId).get();
+
+        List<Long> itemIds = lines.stream()
+                .map(OrderLine::getItemId)
+                .distinct()
+                .collect(toList());
+
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .filter(Objects::nonNull)
+                .collect(toMap(Item::getId, identity()));
+
+        // 배송정보 생성
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        // 주문상품 생성
+        OrderItem[] orderItems = lines.stream()
+                .map(line -> {
+                    Item item = items.get(line.getItemId());
+                    if (item == null) {
+                        throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + line.getItemId());
+                    }
+                    return OrderItem.createOrderItem(item, item.getPrice(), line.getCount());
+                })
+                .toArray(OrderItem[]::new);
+
+        // 주문 생성
+        Order order = Order.createOrder(member, delivery, orderItems);
+
+        saveOrder(order);
+        return order.getId();
+    }
+
+    /**
+     * 인기 상품용 주문
+     * 재고를 읽어서 빼는 대신 조건부 UPDATE(stock >= count) 한 번으로 차감한다.
+     * id는 pooled-lo 블록에서 받으므로 persist는 SQL을 보내지 않고, 주문/배송/주문상품/order_summary INSERT는
+     * 원래 커밋 시점에 나간다. (벌크 UPDATE의 자동 flush는 item 테이블만 본다)
+     * 그러면 UPDATE로 잡은 item 로우 락을 INSERT 왕복 동안 계속 쥐고 있게 되므로, INSERT를 먼저 flush하고
+     * 차감을 마지막 SQL로 보낸다. item 로우 락은 UPDATE 시점부터 커밋까지만 잡힌다.
+     * 재고가 부족하면 NotEnoughStockException이 발생하고 주문 전체가 롤백된다.
+     */
+    @Transactional
+    public Long orderWithAtomicStock(Long memberId, Long itemId, int count) {
+        Member member = memberRepository.findById(memberId).get();
+        Item item = itemRepository.findOne(itemId);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        OrderItem orderItem = OrderItem.createOrderItemWithoutStock(item, item.getPrice(), count);
+        Order order = Order.createOrder(member, delivery, orderItem);
+        saveOrder(order);
+        orderRepository.flush();
+
+        if (itemRepository.decreaseStock(itemId, count) == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+
         return order.getId();
     }
 
+    /**
+     * 주문과 주문 목록용 읽기 모델(order_summary)을 같은 트랜잭션에서 저장한다.
+     * 주문하면 상품 재고도 바뀌므로 상품 버전도 올린다.
+     * 주문 이벤트는 커밋 후 저널에 기록한다.
+     */
+    private void saveOrder(Order order) {
+        orderRepository.save(order);
+        orderSummaryRepository.save(OrderSummary.of(order));
+        aggregateVersions.bumpAfterCommit(Aggregate.ORDER, Aggregate.ITEM);
+        orderJournal.appendAfterCommit(OrderEvent.placed(order));
+    }
+
     // 취소
     @Transactional
     public void cancelOrder(Long orderId) {
         Order order = orderRepository.findOne(orderId);
         order.cancel();
+
+        orderSummaryRepository.updateStatus(List.of(orderId), OrderStatus.CANCEL);
+        aggregateVersions.bumpAfterCommit(Aggregate.ORDER, Aggregate.ITEM);
+        orderJournal.appendAfterCommit(OrderEvent.cancelled(order));
     }
 
 
+    /**
+     * 일괄 취소
+     * 주문을 하나씩 cancel() 하면 주문마다 주문상품과 상품을 지연 로딩하고 상품 재고를 한 로우씩 갱신한다.
+     * 인기 상품은 같은 item 로우를 주문 수만큼 반복해서 갱신하게 된다.
+     * <p>
+     * 1. 취소 가능한 주문(주문 상태, 배송 완료 전)을 쿼리 한 번으로 고르고 락을 건다.
+     * 2. 주문 상태와 주문 요약 상태를 각각 UPDATE 한 번으로 바꾼다.
+     * 3. 상품별 수량 합계를 구해서 상품마다 UPDATE 한 번으로 재고를 되돌린다. (데드락을 피하기 위해 상품 id 순)
+     * <p>
+     * 취소할 수 없는 주문(없는 주문, 이미 취소, 배송 완료)은 건너뛰고 결과에 담는다.
+     */
+    @Transactional
+    public BatchCancelResult cancelOrders(List<Long> orderIds) {
+        List<Order> orders = orderRepository.findCancelableForUpdate(orderIds);
+        if (orders.isEmpty()) {
+            return new BatchCancelResult(Collections.emptyList(), orderIds, 0);
+        }
+
+        List<Long> cancelIds = orders.stream()
+                .map(Order::getId)
+                .collect(toList());
+        orders.forEach(order -> orderJournal.appendAfterCommit(OrderEvent.cancelled(order)));
+
+        Map<Long, Long> quantities = orderRepository.sumCountByItem(cancelIds);
+        orderRepository.bulkCancel(cancelIds);
+        orderSummaryRepository.updateStatus(cancelIds, OrderStatus.CANCEL);
+        quantities.forEach(itemRepository::increaseStock);
+
+        aggregateVersions.bumpAfterCommit(Aggregate.ORDER, Aggregate.ITEM);
+
+        Set<Long> cancelled = new HashSet<>(cancelIds);
+        List<Long> rejectedIds = orderIds.stream()
+                .filter(id -> !cancelled.contains(id))
+                .distinct()
+                .collect(toList());
+        return new BatchCancelResult(cancelIds, rejectedIds, quantities.size());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BatchCancelResult {
+        private final List<Long> cancelledOrderIds;
+        private final List<Long> rejectedOrderIds;
+        private final int restockedItems;
+    }
+
     // 검색
     public List<Order> findOrders(OrderSearch orderSearch) {
+        resolveMemberIds(orderSearch);
+        if (orderSearch.getMemberIds() != null && orderSearch.getMemberIds().isEmpty()) {
+            return Collections.emptyList();
+        }
+
         return orderRepository.findAll(orderSearch);
     }
+
+    /**
+     * 회원 이름 조건을 색인으로 회원 id 조건으로 바꾼다.
+     * 색인이 아직 준비되지 않았거나 일치하는 회원이 너무 많아 IN 절이 비효율적이면 이름 LIKE 검색을 그대로 사용한다.
+     * OrderSearch는 요청 파라미터로 바인딩되므로 memberIds 파라미터로 임의의 회원 id를 넘길 수 있다. 항상 비우고 시작한다.
+     */
+    private void resolveMemberIds(OrderSearch orderSearch) {
+        orderSearch.setMemberIds(null);
+        if (!StringUtils.hasText(orderSearch.getMemberName()) || !memberNameIndex.isReady()) {
+            return;
+        }
+
+        List<Long> memberIds = memberNameIndex.findIds(orderSearch.getMemberName());
+        if (memberIds.size() <= maxMemberIds) {
+            orderSearch.setMemberIds(memberIds);
+        }
+    }
 }
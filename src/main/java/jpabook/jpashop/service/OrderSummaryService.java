@@ -0,0 +1,31 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class OrderSummaryService {
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final AggregateVersions aggregateVersions;
+
+    /**
+     * order_summary를 원본 테이블에서 다시 만든다.
+     * EntityManager로 직접 넣은 데이터(InitDb 등)를 반영하거나 어긋난 읽기 모델을 복구할 때 사용한다.
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        int rows = orderSummaryRepository.rebuild();
+        aggregateVersions.bumpAfterCommit(Aggregate.ORDER);
+
+        log.info("order_summary rebuilt: rows={}, elapsed={}ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+}
@@ -3,14 +3,20 @@ package jpabook.jpashop.service.query;
 import jpabook.jpashop.api.OrderApiController;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderFlatGrouper;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.util.stream.Collectors.toList;
 
@@ -19,6 +25,10 @@ import static java.util.stream.Collectors.toList;
 @Transactional(readOnly = true)
 public class OrderQueryService {
     private final OrderRepository orderRepository;
+    private final OrderQueryRepository orderQueryRepository;
+
+    @Value("${jpashop.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     @GetMapping("/api/v2/orders")
     public List<OrderDto> orderV2() {
@@ -27,6 +37,23 @@ public class OrderQueryService {
                 .collect(toList());
     }
 
+    /**
+     * 전체 주문을 주문 단위로 하나씩 consumer에 넘긴다.
+     * 스크롤이 트랜잭션 안에서 열려 있어야 하므로 서비스 계층에서 감싼다.
+     */
+    public void exportOrders(Consumer<OrderQueryDto> consumer) {
+        OrderFlatGrouper grouper = new OrderFlatGrouper(consumer);
+        orderQueryRepository.streamAllByDtoFlat(exportFetchSize, grouper);
+        grouper.finish();
+    }
+
+    /**
+     * 전체 주문을 주문 id 순 플랫 로우로 하나씩 consumer에 넘긴다. (주문 단위로 묶지 않는다)
+     */
+    public void streamOrderRows(Consumer<OrderFlatDto> consumer) {
+        orderQueryRepository.streamAllByDtoFlat(exportFetchSize, consumer);
+    }
+
     @Data
     public static class OrderDto {
         private Long orderId;
@@ -0,0 +1,8 @@
+package jpabook.jpashop.version;
+
+/**
+ * 버전을 관리하는 애그리거트 단위
+ */
+public enum Aggregate {
+    MEMBER, ITEM, ORDER
+}
@@ -0,0 +1,96 @@
+package jpabook.jpashop.version;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 애그리거트별 변경 버전
+ * 서비스에서 쓰기가 커밋되면 버전을 올리고, 조회 API는 이 버전으로 ETag를 만든다.
+ * 커밋 전에 올리면 아직 보이지 않는 데이터로 ETag가 만들어질 수 있으므로 커밋 후에 올린다.
+ * <p>
+ * 버전은 노드 메모리에만 있으므로 재시작하면 epoch가 바뀌어 기존 ETag는 모두 무효가 된다.
+ * 여러 노드로 띄우면 다른 노드의 쓰기를 알 수 없으므로 단일 노드(또는 같은 노드로 고정된 클라이언트)를 전제로 한다.
+ */
+@Component
+public class AggregateVersions {
+    private final long epoch = ThreadLocalRandom.current().nextLong() >>> 1;
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+    private final Map<Aggregate, AtomicLong> bumpedAt = new EnumMap<>(Aggregate.class);
+
+    public AggregateVersions() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+            bumpedAt.put(aggregate, new AtomicLong());
+        }
+    }
+
+    /**
+     * 트랜잭션이 있으면 커밋 후에, 없으면 바로 버전을 올린다.
+     */
+    public void bumpAfterCommit(Aggregate... aggregates) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(aggregates);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(aggregates);
+            }
+        });
+    }
+
+    public void bump(Aggregate... aggregates) {
+        long now = System.currentTimeMillis();
+        for (Aggregate aggregate : aggregates) {
+            versions.get(aggregate).incrementAndGet();
+            bumpedAt.get(aggregate).set(now);
+        }
+    }
+
+    /**
+     * 최근 millis 안에 버전이 올라간 애그리거트가 있는지
+     * (레플리카가 아직 따라오지 못했을 수 있는 구간인지 판단할 때 쓴다)
+     */
+    public boolean bumpedWithin(long millis, Aggregate... aggregates) {
+        long now = System.currentTimeMillis();
+        for (Aggregate aggregate : aggregates) {
+            if (now - bumpedAt.get(aggregate).get() < millis) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long version(Aggregate aggregate) {
+        return versions.get(aggregate).get();
+    }
+
+    /**
+     * "epoch-버전1-버전2..." 형태의 약한 ETag
+     */
+    public String etag(Aggregate... aggregates) {
+        return etag(null, aggregates);
+    }
+
+    /**
+     * 같은 버전이라도 표현(JSON, CBOR)이 다르면 다른 ETag가 되도록 표현 이름을 붙인다. ("epoch-버전1-...;cbor")
+     */
+    public String etag(String representation, Aggregate... aggregates) {
+        StringBuilder etag = new StringBuilder("W/\"").append(Long.toString(epoch, 36));
+        for (Aggregate aggregate : aggregates) {
+            etag.append('-').append(version(aggregate));
+        }
+        if (representation != null) {
+            etag.append(';').append(representation);
+        }
+        return etag.append('"').toString();
+    }
+}
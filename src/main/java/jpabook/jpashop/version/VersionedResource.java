@@ -0,0 +1,16 @@
+package jpabook.jpashop.version;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 응답이 의존하는 애그리거트 목록
+ * 애그리거트 버전으로 ETag를 만들고, If-None-Match가 같으면 쿼리 없이 304를 응답한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface VersionedResource {
+    Aggregate[] value();
+}
@@ -0,0 +1,78 @@
+package jpabook.jpashop.version;
+
+import jpabook.jpashop.config.ReadYourWrites;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * @VersionedResource 가 붙은 핸들러는 컨트롤러를 호출하기 전에 ETag를 비교한다.
+ * 버전을 쿼리보다 먼저 읽기 때문에 ETag는 응답 데이터보다 같거나 오래된 버전이 된다.
+ * (그 사이 변경이 있으면 다음 요청에서 다시 조회하므로 오래된 데이터로 304가 나가지는 않는다)
+ * <p>
+ * 버전은 프라이머리 커밋 후에 올라가므로, 읽기를 레플리카로 보내면 새 ETag에 복제가 덜 된 옛 데이터가 담길 수 있다.
+ * 그러면 클라이언트는 다음 쓰기 전까지 옛 데이터로 304를 받는다.
+ * 그래서 버전이 올라간 지 replicaLagMillis가 지나지 않았으면 이 요청의 읽기를 프라이머리로 보낸다.
+ */
+@RequiredArgsConstructor
+public class VersionedResourceInterceptor implements HandlerInterceptor {
+    private final AggregateVersions aggregateVersions;
+    private final long replicaLagMillis;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+
+        VersionedResource versionedResource = ((HandlerMethod) handler).getMethodAnnotation(VersionedResource.class);
+        if (versionedResource == null) {
+            return true;
+        }
+
+        // JSON/CBOR 처럼 Accept에 따라 표현이 달라질 수 있으므로 캐시가 구분하도록 한다.
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        if (aggregateVersions.bumpedWithin(replicaLagMillis, versionedResource.value())) {
+            ReadYourWrites.pinPrimary();
+        }
+
+        String etag = aggregateVersions.etag(representation(request), versionedResource.value());
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * Accept로 고를 응답 표현 (CBOR를 명시적으로 원하면 cbor, 나머지는 json)
+     */
+    private static String representation(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return "json";
+        }
+
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(mediaTypes);
+
+            for (MediaType mediaType : mediaTypes) {
+                if (!mediaType.isWildcardType() && !mediaType.isWildcardSubtype() && MediaType.APPLICATION_CBOR.includes(mediaType)) {
+                    return "cbor";
+                }
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return "json";
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
+        return "json";
+    }
+}
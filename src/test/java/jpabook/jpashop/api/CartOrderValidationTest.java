@@ -0,0 +1,37 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 장바구니 주문의 각 줄도 검증해야 한다. (음수 수량이면 재고가 늘어나고 음수 금액 주문이 저장된다)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CartOrderValidationTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void 음수_수량이면_400() throws Exception {
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\": 1, \"lines\": [{\"itemId\": 1, \"count\": -3}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 상품_id가_없으면_400() throws Exception {
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\": 1, \"lines\": [{\"count\": 1}]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CborRepresentationTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void Accept에_따라_CBOR_또는_JSON() throws Exception {
+        //given
+
+        // when
+        MockHttpServletResponse json = mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        MockHttpServletResponse cbor = mockMvc.perform(get("/api/v5/orders").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(json.getContentType())), "기본 응답은 JSON이어야 한다.");
+        assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(cbor.getContentType())), "Accept: application/cbor 면 CBOR로 응답해야 한다.");
+        assertTrue((cbor.getContentAsByteArray()[0] & 0xE0) == 0x80, "CBOR 배열(major type 4)로 시작해야 한다.");
+        assertNotEquals(json.getHeader(HttpHeaders.ETAG), cbor.getHeader(HttpHeaders.ETAG), "표현이 다르면 ETag도 달라야 한다.");
+    }
+
+    @Test
+    public void JSON_ETag로_CBOR_요청하면_304가_아님() throws Exception {
+        //given
+        String jsonEtag = mockMvc.perform(get("/api/v5/orders"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+
+        // then
+        mockMvc.perform(get("/api/v5/orders").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    AggregateVersions aggregateVersions;
+
+    @Test
+    public void 변경이_없으면_304() throws Exception {
+        //given
+        String etag = mockMvc.perform(get("/api/v2/members"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+
+        // then
+        assertNotNull(etag, "ETag가 내려와야 한다.");
+        mockMvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void 변경되면_다시_조회() throws Exception {
+        //given
+        String etag = mockMvc.perform(get("/api/v2/members"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        aggregateVersions.bump(Aggregate.MEMBER);
+
+        // then
+        mockMvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
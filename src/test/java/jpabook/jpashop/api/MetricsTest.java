@@ -0,0 +1,86 @@
+package jpabook.jpashop.api;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.monitor.SqlBudgetResponseAdvice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class MetricsTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void 요청별_SQL_메트릭() throws Exception {
+        //given
+
+        // when
+        mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk());
+
+        // then
+        DistributionSummary statements = meterRegistry.find("jpashop.sql.statements")
+                .tag("uri", "/api/v5/orders")
+                .summary();
+        Timer jdbc = meterRegistry.find("jpashop.sql.jdbc")
+                .tag("uri", "/api/v5/orders")
+                .timer();
+
+        assertNotNull(statements, "uri 패턴별로 statement 수가 기록되어야 한다.");
+        assertTrue(statements.totalAmount() > 0, "주문 조회는 SQL을 실행해야 한다.");
+        assertNotNull(jdbc, "uri 패턴별로 JDBC 시간이 기록되어야 한다.");
+    }
+
+    @Test
+    public void 하이버네이트_통계_메트릭() throws Exception {
+        //given
+
+        // when
+        mockMvc.perform(get("/api/v2/members"))
+                .andExpect(status().isOk());
+
+        // then
+        assertNotNull(meterRegistry.find("hibernate.query.executions").functionCounter(), "하이버네이트 쿼리 수가 노출되어야 한다.");
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge(), "커넥션 풀 사용량이 노출되어야 한다.");
+    }
+
+    @Test
+    public void 요청별_로우_수() throws Exception {
+        //given
+
+        // when
+        String rows = mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(SqlBudgetResponseAdvice.ROWS_HEADER);
+
+        // then
+        assertNotNull(rows, "읽은 로우 수를 헤더로 내려줘야 한다.");
+        assertTrue(Long.parseLong(rows) > 0, "주문 조회는 로우를 읽어야 한다.");
+        assertNotNull(meterRegistry.find("jpashop.sql.rows").tag("uri", "/api/v5/orders").summary(), "uri 패턴별로 로우 수가 기록되어야 한다.");
+    }
+
+    @Test
+    public void 병렬조회_작업_스레드의_SQL도_집계() throws Exception {
+        //given
+
+        // when
+        String statements = mockMvc.perform(get("/api/v4.1/orders"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(SqlBudgetResponseAdvice.STATEMENTS_HEADER);
+
+        // then
+        assertTrue(Long.parseLong(statements) >= 2, "주문 조회와 주문상품 조회가 모두 작업 스레드에서 실행되어도 세어야 한다.");
+    }
+}
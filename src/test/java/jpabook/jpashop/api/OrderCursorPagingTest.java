@@ -0,0 +1,129 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderCursorPagingTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+
+    @BeforeEach
+    public void setUp() {
+        Member member = new Member();
+        member.setName("커서회원");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(1000);
+        em.persist(book);
+
+        for (int i = 0; i < 5; i++) {
+            orderService.order(member.getId(), book.getId(), 1);
+        }
+    }
+
+    @Test
+    public void 같은_주문일시_페이징() throws Exception {
+        //given
+        em.createQuery("update Order o set o.orderDate = :orderDate")
+                .setParameter("orderDate", LocalDateTime.of(2021, 12, 1, 10, 0))
+                .executeUpdate();
+        em.clear();
+        List<Long> orderIds = em.createQuery("select o.id from Order o", Long.class).getResultList();
+
+        // when
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = page(cursor, 2);
+            page.get("data").forEach(o -> pagedIds.add(o.get("orderId").asLong()));
+            cursor = page.get("next").isNull() ? null : page.get("next").asText();
+        } while (cursor != null && pagedIds.size() <= orderIds.size());
+
+        // then
+        assertEquals(pagedIds.size(), new HashSet<>(pagedIds).size(), "페이지 사이에 중복된 주문이 없어야 한다.");
+        assertEquals(new HashSet<>(orderIds), new HashSet<>(pagedIds), "빠진 주문 없이 모두 조회되어야 한다.");
+    }
+
+    @Test
+    public void limit_범위_제한() throws Exception {
+        //given
+        long orderCount = em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+
+        // when
+        JsonNode zero = page(null, 0);
+        JsonNode negative = page(null, -10);
+        JsonNode huge = page(null, 100000);
+
+        // then
+        assertEquals(1, zero.get("data").size(), "limit이 0이면 1건으로 조회해야 한다.");
+        assertFalse(zero.get("next").isNull(), "다음 페이지가 있어야 한다.");
+        assertEquals(1, negative.get("data").size(), "limit이 음수면 1건으로 조회해야 한다.");
+        assertEquals(Math.min(orderCount, 1000), huge.get("data").size(), "limit은 1000까지만 허용한다.");
+    }
+
+    @Test
+    public void 잘못된_커서는_400() throws Exception {
+        //given
+        String notBase64 = "!!!";
+        String badDate = Base64.getUrlEncoder().encodeToString("어제_1".getBytes(StandardCharsets.UTF_8));
+        String noDelimiter = Base64.getUrlEncoder().encodeToString("2021-12-01T10:00".getBytes(StandardCharsets.UTF_8));
+
+        // when
+
+        // then
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", notBase64))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", badDate))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", noDelimiter))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode page(String cursor, int limit) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/v3.2/orders").param("limit", String.valueOf(limit));
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body);
+    }
+}
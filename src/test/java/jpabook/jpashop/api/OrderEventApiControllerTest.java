@@ -0,0 +1,40 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.journal.OrderEvent;
+import jpabook.jpashop.journal.OrderEventType;
+import jpabook.jpashop.journal.OrderJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventApiControllerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 잘못된_오프셋은_400() throws Exception {
+        //given
+        OrderJournal journal = new OrderJournal(true, dir.toString(), 100, 10_000, false);
+        journal.open();
+        journal.append(new OrderEvent(OrderEventType.PLACED, 1L, 100L, 10000, Instant.now()));
+        journal.flush();
+        OrderEventApiController controller = new OrderEventApiController(journal);
+
+        // when
+        ResponseStatusException negative = assertThrows(ResponseStatusException.class,
+                () -> controller.orderEvents(-1, 10));
+        ResponseStatusException misaligned = assertThrows(ResponseStatusException.class,
+                () -> controller.orderEvents(5, 10));
+        journal.close();
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, negative.getStatus(), "음수 offset은 400이어야 한다.");
+        assertEquals(HttpStatus.BAD_REQUEST, misaligned.getStatus(), "레코드 경계가 아닌 offset은 400이어야 한다.");
+    }
+}
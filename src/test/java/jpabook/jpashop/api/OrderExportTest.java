@@ -0,0 +1,100 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderLine;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 스크롤 fetch size를 주문상품 수보다 작게 잡아서 한 주문의 로우가 fetch 경계에 걸쳐도 한 줄로 묶이는지 확인한다.
+ */
+@SpringBootTest(properties = "jpashop.export.fetch-size=2")
+@AutoConfigureMockMvc
+@Transactional
+class OrderExportTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    public void 주문마다_한_줄() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("내보내기회원");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book1 = book("내보내기책1");
+        Book book2 = book("내보내기책2");
+        Book book3 = book("내보내기책3");
+
+        Long cartOrderId = orderService.order(member.getId(), List.of(
+                new OrderLine(book1.getId(), 1),
+                new OrderLine(book2.getId(), 2),
+                new OrderLine(book3.getId(), 3)));
+        orderService.order(member.getId(), book1.getId(), 1);
+
+        Map<Long, Long> itemCounts = new HashMap<>();
+        em.createQuery("select oi.order.id, count(oi) from OrderItem oi group by oi.order.id", Object[].class)
+                .getResultList()
+                .forEach(row -> itemCounts.put((Long) row[0], (Long) row[1]));
+
+        // when
+        String body = mockMvc.perform(get("/api/v6/orders/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // then
+        assertTrue(body.endsWith("\n"), "마지막 주문도 줄바꿈으로 끝나야 한다.");
+        String[] lines = body.split("\n");
+        assertEquals(itemCounts.size(), lines.length, "주문 하나당 한 줄이어야 한다.");
+
+        Map<Long, JsonNode> exported = new HashMap<>();
+        for (String line : lines) {
+            JsonNode order = objectMapper.readTree(line);
+            assertNull(exported.put(order.get("orderId").asLong(), order), "같은 주문이 두 줄로 나뉘면 안 된다.");
+        }
+        itemCounts.forEach((orderId, count) ->
+                assertEquals(count.intValue(), exported.get(orderId).get("orderItems").size(), "주문상품이 모두 들어 있어야 한다."));
+
+        List<String> itemNames = new ArrayList<>();
+        exported.get(cartOrderId).get("orderItems").forEach(oi -> itemNames.add(oi.get("itemName").asText()));
+        assertTrue(itemNames.containsAll(List.of("내보내기책1", "내보내기책2", "내보내기책3")), "장바구니 주문의 상품이 모두 보여야 한다.");
+    }
+
+    private Book book(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setStockQuantity(100);
+        book.setPrice(1000);
+        em.persist(book);
+        return book;
+    }
+}
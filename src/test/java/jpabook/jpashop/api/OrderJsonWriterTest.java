@@ -0,0 +1,67 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJsonWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    public void Jackson_직렬화와_같은_JSON() throws Exception {
+        //given
+        LocalDateTime orderDate = LocalDateTime.of(2021, 12, 1, 10, 30, 15, 123000000);
+        Address address = new Address("서울", "새절", "12345");
+
+        List<OrderFlatDto> rows = List.of(
+                new OrderFlatDto(1L, "회원1", orderDate, OrderStatus.ORDER, address, "JPA1 BOOK", 10000, 1),
+                new OrderFlatDto(1L, "회원1", orderDate, OrderStatus.ORDER, address, "JPA2 BOOK", 20000, 2),
+                new OrderFlatDto(2L, "회원2", orderDate, OrderStatus.CANCEL, address, "SPRING1 BOOK", 30000, 3));
+
+        List<OrderQueryDto> expected = List.of(
+                new OrderQueryDto(1L, "회원1", orderDate, OrderStatus.ORDER, address, List.of(
+                        new OrderItemQueryDto(1L, "JPA1 BOOK", 10000, 1),
+                        new OrderItemQueryDto(1L, "JPA2 BOOK", 20000, 2))),
+                new OrderQueryDto(2L, "회원2", orderDate, OrderStatus.CANCEL, address, List.of(
+                        new OrderItemQueryDto(2L, "SPRING1 BOOK", 30000, 3))));
+
+        // when
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            OrderJsonWriter writer = new OrderJsonWriter(generator);
+            rows.forEach(writer);
+            writer.finish();
+        }
+
+        // then
+        assertEquals(objectMapper.valueToTree(expected), objectMapper.readTree(json.toString()), "ObjectMapper로 직렬화한 결과와 같아야 한다.");
+    }
+
+    @Test
+    public void 주문이_없으면_빈_배열() throws Exception {
+        //given
+        StringWriter json = new StringWriter();
+
+        // when
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            new OrderJsonWriter(generator).finish();
+        }
+
+        // then
+        assertEquals("[]", json.toString());
+    }
+}
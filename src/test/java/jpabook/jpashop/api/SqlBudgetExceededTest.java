@@ -0,0 +1,45 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitor.SqlBudgetExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 배치 페치를 끄면 v3.1은 주문상품/상품을 하나씩 지연 로딩(N+1)하므로 예산(3)을 넘기고,
+ * 엄격 모드에서는 요청이 실패해야 한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.sql.budget-strict=true",
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=1"
+})
+@AutoConfigureMockMvc
+class SqlBudgetExceededTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void SQL_예산_초과시_실패() throws Exception {
+        //given
+
+        // when
+        Exception exception = assertThrows(Exception.class, () -> mockMvc.perform(get("/api/v3.1/orders?offset=0")));
+
+        // then
+        assertTrue(hasCause(exception, SqlBudgetExceededException.class), "예산을 넘기면 SqlBudgetExceededException으로 실패해야 한다.");
+    }
+
+    private static boolean hasCause(Throwable throwable, Class<? extends Throwable> type) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
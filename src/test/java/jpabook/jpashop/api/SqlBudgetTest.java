@@ -0,0 +1,45 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitor.SqlBudgetResponseAdvice;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @SqlBudget 이 붙은 API가 예산 안에서 동작하는지 검사한다.
+ * 엄격 모드에서는 예산을 넘기면 500이 내려오므로 N+1이 다시 생기면 이 테스트가 실패한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.sql.budget-strict=true",
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=100"
+})
+@AutoConfigureMockMvc
+class SqlBudgetTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/v3/orders",
+            "/api/v3.1/orders?offset=0",
+            "/api/v3.2/orders",
+            "/api/v5/orders",
+            "/api/v6/orders",
+            "/api/v3/simple-orders",
+            "/api/v4/simple-orders",
+            "/api/v5/simple-orders?limit=1",
+            "/api/v2/members"
+    })
+    public void SQL_예산_이내(String url) throws Exception {
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SqlBudgetResponseAdvice.STATEMENTS_HEADER));
+    }
+}
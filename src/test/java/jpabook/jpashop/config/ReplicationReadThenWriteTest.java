@@ -0,0 +1,123 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 인메모리 H2 두 개로 읽기/쓰기 분리를 켜고, 한 요청 안에서 읽은 다음 쓰면 쓰기가 프라이머리로 가는지 확인한다.
+ * 레플리카에는 프라이머리 스키마만 복사해둔다. (데이터는 없다)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicationReadThenWriteTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.open-in-view=false",
+        "jpashop.datasource.replication.enabled=true",
+        "jpashop.datasource.replication.replicas[0].url=" + ReplicationReadThenWriteTest.REPLICA_URL,
+        "jpashop.datasource.replication.replicas[0].username=sa",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "jpashop.datasource.replication.replicas[0].hikari.maximum-pool-size=3"})
+@AutoConfigureMockMvc
+@Import({ReplicationReadThenWriteTest.ReplicaSchemaCopier.class, ReplicationReadThenWriteTest.ReadThenWriteController.class})
+class ReplicationReadThenWriteTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:rw-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ReplicationRoutingDataSource routingDataSource;
+
+    @Test
+    public void 한_요청에서_읽은_뒤_쓰기는_프라이머리() throws Exception {
+        //given
+
+        // when
+        mockMvc.perform(post("/test/read-then-write").param("name", "분리회원"))
+                .andExpect(status().isOk());
+
+        // then
+        assertEquals(1, countMembers(PRIMARY_URL, "분리회원"), "쓰기는 프라이머리에 반영되어야 한다.");
+        assertEquals(0, countMembers(REPLICA_URL, "분리회원"), "쓰기가 레플리카 커넥션으로 나가면 안 된다.");
+    }
+
+    @Test
+    public void 레플리카_풀_설정() throws Exception {
+        //given
+
+        // when
+        HikariDataSource replica = (HikariDataSource) routingDataSource.getResolvedDataSources().get("replica-0");
+
+        // then
+        assertEquals(5000, replica.getConnectionTimeout(), "spring.datasource.hikari.* 설정을 레플리카도 따라야 한다.");
+        assertEquals(3, replica.getMaximumPoolSize(), "레플리카별 hikari.* 설정이 우선해야 한다.");
+        assertEquals("replica-0", replica.getPoolName());
+    }
+
+    private int countMembers(String url, String name) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement statement = connection.prepareStatement("select count(*) from member where name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * 시작 시점의 읽기(이름 필터/색인 워밍업)도 레플리카로 가므로 ApplicationReadyEvent 전에 스키마를 복사한다.
+     */
+    static class ReplicaSchemaCopier {
+        @EventListener(ContextRefreshedEvent.class)
+        public void copySchema() throws Exception {
+            try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+                 Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+                 Statement replicaStatement = replica.createStatement();
+                 ResultSet script = primary.createStatement().executeQuery("SCRIPT NODATA")) {
+                replicaStatement.execute("DROP ALL OBJECTS");
+                while (script.next()) {
+                    replicaStatement.execute(script.getString(1));
+                }
+            }
+        }
+    }
+
+    @RestController
+    @RequiredArgsConstructor
+    static class ReadThenWriteController {
+        private final MemberService memberService;
+
+        @PostMapping("/test/read-then-write")
+        public Long readThenWrite(@RequestParam("name") String name) {
+            memberService.findAll();
+
+            Member member = new Member();
+            member.setName(name);
+            return memberService.join(member);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
+import jpabook.jpashop.version.VersionedResource;
+import jpabook.jpashop.version.VersionedResourceInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 인메모리 H2 두 개(primary, replica)로 라우팅을 확인한다.
+ */
+class ReplicationRoutingDataSourceTest {
+    private final DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+    private final DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_레플리카() throws Exception {
+        //given
+        ReplicationRoutingDataSource routing = create(List.of(replica), 0);
+
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // then
+        assertTrue(urlOf(routing).startsWith("jdbc:h2:mem:replica"));
+    }
+
+    @Test
+    public void 쓰기_트랜잭션은_프라이머리() throws Exception {
+        //given
+        ReplicationRoutingDataSource routing = create(List.of(replica), 0);
+
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        // then
+        assertTrue(urlOf(routing).startsWith("jdbc:h2:mem:primary"));
+    }
+
+    @Test
+    public void 레플리카_장애시_프라이머리() throws Exception {
+        //given
+        DataSource broken = new DriverManagerDataSource("jdbc:h2:mem:broken;IFEXISTS=TRUE");
+        ReplicationRoutingDataSource routing = create(List.of(broken), 0);
+
+        // when
+        routing.checkReplicaHealth();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // then
+        assertFalse(routing.isHealthy("replica-0"), "연결할 수 없는 레플리카는 장애로 표시되어야 한다.");
+        assertTrue(urlOf(routing).startsWith("jdbc:h2:mem:primary"));
+    }
+
+    @Test
+    public void 쓰기_직후_읽기는_프라이머리() throws Exception {
+        //given
+        ReplicationRoutingDataSource routing = create(List.of(replica), 60_000);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ReadYourWrites.bind(null, response, 60_000);
+
+        // when
+        write(routing);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // then
+        assertTrue(urlOf(routing).startsWith("jdbc:h2:mem:primary"), "read-your-writes 시간 안에는 프라이머리에서 읽어야 한다.");
+        assertNotNull(response.getCookie(ReadYourWrites.LAST_WRITE_COOKIE), "쓰기 시각을 쿠키로 내려줘야 한다.");
+    }
+
+    @Test
+    public void 같은_스레드라도_다른_클라이언트는_레플리카() throws Exception {
+        //given
+        ReplicationRoutingDataSource routing = create(List.of(replica), 60_000);
+        MockHttpServletResponse writerResponse = new MockHttpServletResponse();
+        ReadYourWrites.bind(null, writerResponse, 60_000);
+        write(routing);
+        ReadYourWrites.clear();
+
+        // when
+        ReadYourWrites.bind(null, new MockHttpServletResponse(), 60_000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        String otherClient = urlOf(routing);
+
+        ReadYourWrites.clear();
+        long writtenAt = Long.parseLong(writerResponse.getCookie(ReadYourWrites.LAST_WRITE_COOKIE).getValue());
+        ReadYourWrites.bind(writtenAt, new MockHttpServletResponse(), 60_000);
+        String writer = urlOf(routing);
+
+        // then
+        assertTrue(otherClient.startsWith("jdbc:h2:mem:replica"), "쓰기를 하지 않은 클라이언트는 레플리카에서 읽어야 한다.");
+        assertTrue(writer.startsWith("jdbc:h2:mem:primary"), "쿠키로 돌아온 클라이언트는 프라이머리에서 읽어야 한다.");
+    }
+
+    @Test
+    public void 버전_갱신_직후_버전_리소스는_프라이머리() throws Exception {
+        //given
+        ReplicationRoutingDataSource routing = create(List.of(replica), 0);
+        AggregateVersions aggregateVersions = new AggregateVersions();
+        VersionedResourceInterceptor interceptor = new VersionedResourceInterceptor(aggregateVersions, 60_000);
+        HandlerMethod handler = new HandlerMethod(new VersionedController(), VersionedController.class.getMethod("orders"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        ReadYourWrites.bind(null, new MockHttpServletResponse(), 0);
+        interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler);
+        String beforeBump = urlOf(routing);
+        ReadYourWrites.clear();
+
+        aggregateVersions.bump(Aggregate.ORDER);
+        ReadYourWrites.bind(null, new MockHttpServletResponse(), 0);
+        interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler);
+        String afterBump = urlOf(routing);
+
+        // then
+        assertTrue(beforeBump.startsWith("jdbc:h2:mem:replica"), "최근 변경이 없으면 레플리카에서 읽어야 한다.");
+        assertTrue(afterBump.startsWith("jdbc:h2:mem:primary"), "새 ETag에 옛 데이터가 담기지 않도록 버전 갱신 직후에는 프라이머리에서 읽어야 한다.");
+    }
+
+    static class VersionedController {
+        @VersionedResource(Aggregate.ORDER)
+        public String orders() {
+            return "orders";
+        }
+    }
+
+    /**
+     * 쓰기 트랜잭션 하나를 흉내낸다. (프라이머리 커넥션을 얻고 커밋 콜백 실행)
+     */
+    private void write(ReplicationRoutingDataSource routing) throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        urlOf(routing);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private ReplicationRoutingDataSource create(List<DataSource> replicas, long readYourWritesMillis) {
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replicas, readYourWritesMillis);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private String urlOf(DataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package jpabook.jpashop.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJournalTest {
+    // 레코드 37바이트, 세그먼트 하나에 두 개씩
+    private static final int SEGMENT_SIZE = 100;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 기록한_순서대로_재생() throws Exception {
+        //given
+        OrderJournal journal = open();
+        journal.append(event(OrderEventType.PLACED, 1L));
+        journal.append(event(OrderEventType.PLACED, 2L));
+        journal.append(event(OrderEventType.CANCELLED, 1L));
+
+        // when
+        List<JournalRecord> beforeFlush = journal.read(0, 10);
+        journal.flush();
+        List<JournalRecord> records = journal.read(0, 10);
+        journal.close();
+
+        // then
+        assertTrue(beforeFlush.isEmpty(), "디스크에 내려가기 전에는 읽을 수 없어야 한다.");
+        assertEquals(3, records.size(), "세그먼트가 넘어가도 모두 읽어야 한다.");
+        assertEquals(OrderEventType.CANCELLED, records.get(2).getEvent().getType());
+        assertEquals(1L, records.get(2).getEvent().getOrderId());
+    }
+
+    @Test
+    public void 이어서_읽기() throws Exception {
+        //given
+        OrderJournal journal = open();
+        journal.append(event(OrderEventType.PLACED, 1L));
+        journal.append(event(OrderEventType.PLACED, 2L));
+        journal.append(event(OrderEventType.PLACED, 3L));
+        journal.flush();
+
+        // when
+        List<JournalRecord> first = journal.read(0, 2);
+        List<JournalRecord> second = journal.read(first.get(1).getNextOffset(), 2);
+        journal.close();
+
+        // then
+        assertEquals(1, second.size());
+        assertEquals(3L, second.get(0).getEvent().getOrderId(), "nextOffset부터 이어서 읽어야 한다.");
+    }
+
+    @Test
+    public void 재시작하면_이어서_기록() throws Exception {
+        //given
+        OrderJournal journal = open();
+        journal.append(event(OrderEventType.PLACED, 1L));
+        journal.append(event(OrderEventType.PLACED, 2L));
+        journal.append(event(OrderEventType.PLACED, 3L));
+        journal.close();
+
+        // when
+        OrderJournal reopened = open();
+        reopened.append(event(OrderEventType.PLACED, 4L));
+        reopened.flush();
+        List<JournalRecord> records = reopened.read(0, 10);
+        reopened.close();
+
+        // then
+        assertEquals(4, records.size(), "재시작 전 레코드가 남아 있어야 한다.");
+        assertEquals(4L, records.get(3).getEvent().getOrderId());
+    }
+
+    @Test
+    public void 레코드_경계가_아닌_오프셋() throws Exception {
+        //given
+        OrderJournal journal = open();
+        journal.append(event(OrderEventType.PLACED, 1L));
+        journal.flush();
+
+        // when
+
+        // then
+        assertThrows(IllegalArgumentException.class, () -> journal.read(3, 10));
+        // 헤더(8) + 타입(1) 다음, orderId의 상위 4바이트는 항상 0이라 길이 0으로 읽힌다.
+        assertThrows(IllegalArgumentException.class, () -> journal.read(9, 10), "길이가 0으로 읽혀도 건너뛰지 않고 거부해야 한다.");
+        journal.close();
+    }
+
+    private OrderJournal open() throws Exception {
+        OrderJournal journal = new OrderJournal(true, dir.toString(), SEGMENT_SIZE, 10_000, false);
+        journal.open();
+        return journal;
+    }
+
+    private OrderEvent event(OrderEventType type, Long orderId) {
+        return new OrderEvent(type, orderId, 100L, 10000, Instant.now());
+    }
+}
@@ -0,0 +1,144 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Item.Item;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderLine;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 병렬 조회는 작업마다 별도 트랜잭션에서 읽으므로 테스트 트랜잭션 없이 커밋된 데이터로 확인하고 직접 지운다.
+ * 커넥션 풀을 2개로 줄여서 요청 스레드가 커넥션을 잡은 채로 작업을 기다리지 않는지 본다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.query.chunk-size=1",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=3000"})
+@AutoConfigureMockMvc
+class OrderQueryRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Long memberId;
+    List<Long> itemIds = new ArrayList<>();
+    List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            Member member = new Member();
+            member.setName("병렬회원");
+            member.setAddress(new Address("서울", "새절", "123456"));
+            em.persist(member);
+            memberId = member.getId();
+
+            for (int i = 0; i < 3; i++) {
+                Book book = new Book();
+                book.setName("책" + i);
+                book.setStockQuantity(100);
+                book.setPrice(1000 * (i + 1));
+                em.persist(book);
+                itemIds.add(book.getId());
+            }
+        });
+
+        orderIds.add(orderService.order(memberId, List.of(
+                new OrderLine(itemIds.get(2), 1), new OrderLine(itemIds.get(0), 2), new OrderLine(itemIds.get(1), 3))));
+        orderIds.add(orderService.order(memberId, itemIds.get(1), 1));
+        orderIds.add(orderService.order(memberId, List.of(
+                new OrderLine(itemIds.get(1), 4), new OrderLine(itemIds.get(2), 5))));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            for (Long orderId : orderIds) {
+                OrderSummary summary = em.find(OrderSummary.class, orderId);
+                if (summary != null) {
+                    em.remove(summary);
+                }
+                em.remove(em.find(Order.class, orderId));
+            }
+            itemIds.forEach(itemId -> em.remove(em.find(Item.class, itemId)));
+            em.remove(em.find(Member.class, memberId));
+        });
+    }
+
+    @Test
+    public void 병렬조회_결과가_v4_v5와_같음() throws Exception {
+        //given
+
+        // when
+        List<OrderQueryDto> v4 = orderQueryRepository.findOrderQueryDtos();
+        List<OrderQueryDto> v5 = orderQueryRepository.findAllByDtoOptimization();
+        List<OrderQueryDto> parallel = orderQueryRepository.findOrderQueryDtosParallel();
+
+        // then
+        assertEquals(3, parallel.size());
+        assertSameOrders(v4, parallel);
+        assertSameOrders(v5, parallel);
+    }
+
+    @Test
+    public void 동시요청이_커넥션풀보다_많아도_타임아웃_없음() throws Exception {
+        //given
+        int requests = 6;
+        ExecutorService clients = Executors.newFixedThreadPool(requests);
+        Callable<Integer> call = () -> mockMvc.perform(get("/api/v4.1/orders")).andReturn().getResponse().getStatus();
+
+        // when
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            statuses.add(clients.submit(call));
+        }
+
+        // then
+        for (Future<Integer> status : statuses) {
+            assertEquals(200, status.get(), "요청 스레드가 커넥션을 잡고 기다리면 작업이 커넥션을 얻지 못해 실패한다.");
+        }
+        clients.shutdown();
+    }
+
+    private void assertSameOrders(List<OrderQueryDto> expected, List<OrderQueryDto> actual) {
+        assertEquals(expected.size(), actual.size(), "주문 수가 같아야 한다.");
+        for (int i = 0; i < expected.size(); i++) {
+            OrderQueryDto e = expected.get(i);
+            OrderQueryDto a = actual.get(i);
+            assertEquals(e.getOrderId(), a.getOrderId(), "주문 순서가 같아야 한다.");
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getOrderStatus(), a.getOrderStatus());
+            assertEquals(e.getOrderItems(), a.getOrderItems(), "주문상품과 그 순서가 같아야 한다.");
+        }
+    }
+}
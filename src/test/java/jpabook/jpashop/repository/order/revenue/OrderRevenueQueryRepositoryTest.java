@@ -0,0 +1,133 @@
+package jpabook.jpashop.repository.order.revenue;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderLine;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderRevenueQueryRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    OrderRevenueQueryRepository orderRevenueQueryRepository;
+
+    @Test
+    public void 회원별_매출() throws Exception {
+        //given
+        Member member = member("매출회원");
+        Book book = book(1000);
+        orderService.order(member.getId(), book.getId(), 2);
+        orderService.order(member.getId(), List.of(new OrderLine(book.getId(), 3)));
+        Long canceledOrderId = orderService.order(member.getId(), book.getId(), 100);
+        orderService.cancelOrder(canceledOrderId);
+
+        // when
+        List<MemberRevenueDto> result = orderRevenueQueryRepository.findRevenueByMember(1000);
+
+        // then
+        MemberRevenueDto revenue = result.stream()
+                .filter(r -> r.getMemberId().equals(member.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, revenue.getOrderCount(), "취소된 주문은 세지 않아야 한다.");
+        assertEquals(5000, revenue.getRevenue());
+        assertEquals("매출회원", revenue.getName());
+        assertEquals(1, orderRevenueQueryRepository.findRevenueByMember(1).size(), "limit만큼만 조회해야 한다.");
+    }
+
+    @Test
+    public void 일별_매출() throws Exception {
+        //given
+        Member member = member("일별회원");
+        Book book = book(1000);
+        orderAt(member, book, 1, LocalDateTime.of(2001, 1, 1, 9, 0));
+        orderAt(member, book, 2, LocalDateTime.of(2001, 1, 1, 23, 59));
+        orderAt(member, book, 4, LocalDateTime.of(2001, 1, 3, 0, 0));
+        orderAt(member, book, 8, LocalDateTime.of(2001, 1, 4, 0, 0));
+
+        // when
+        List<DailyRevenueDto> result = orderRevenueQueryRepository.findRevenueByDay(LocalDate.of(2001, 1, 1), LocalDate.of(2001, 1, 4));
+
+        // then
+        assertEquals(2, result.size(), "주문이 있는 날만, to 날짜는 빼고 조회해야 한다.");
+        assertEquals(new DailyRevenueDto(LocalDate.of(2001, 1, 1), 2, 3000), result.get(0));
+        assertEquals(new DailyRevenueDto(LocalDate.of(2001, 1, 3), 1, 4000), result.get(1));
+    }
+
+    @Test
+    public void 상태별_매출() throws Exception {
+        //given
+        Map<OrderStatus, StatusRevenueDto> before = byStatus();
+        Member member = member("상태회원");
+        Book book = book(1000);
+        orderService.order(member.getId(), book.getId(), 2);
+        Long canceledOrderId = orderService.order(member.getId(), book.getId(), 5);
+        orderService.cancelOrder(canceledOrderId);
+
+        // when
+        Map<OrderStatus, StatusRevenueDto> after = byStatus();
+
+        // then
+        assertEquals(1, after.get(OrderStatus.ORDER).getOrderCount() - orderCount(before, OrderStatus.ORDER));
+        assertEquals(2000, after.get(OrderStatus.ORDER).getRevenue() - revenue(before, OrderStatus.ORDER));
+        assertEquals(1, after.get(OrderStatus.CANCEL).getOrderCount() - orderCount(before, OrderStatus.CANCEL));
+        assertEquals(5000, after.get(OrderStatus.CANCEL).getRevenue() - revenue(before, OrderStatus.CANCEL), "취소 주문도 금액을 유지해야 한다.");
+    }
+
+    private Map<OrderStatus, StatusRevenueDto> byStatus() {
+        return orderRevenueQueryRepository.findRevenueByStatus().stream()
+                .collect(toMap(StatusRevenueDto::getStatus, Function.identity()));
+    }
+
+    private long orderCount(Map<OrderStatus, StatusRevenueDto> revenues, OrderStatus status) {
+        return revenues.containsKey(status) ? revenues.get(status).getOrderCount() : 0;
+    }
+
+    private long revenue(Map<OrderStatus, StatusRevenueDto> revenues, OrderStatus status) {
+        return revenues.containsKey(status) ? revenues.get(status).getRevenue() : 0;
+    }
+
+    private void orderAt(Member member, Book book, int count, LocalDateTime orderDate) {
+        Long orderId = orderService.order(member.getId(), book.getId(), count);
+        orderRepository.findOne(orderId).setOrderDate(orderDate);
+    }
+
+    private Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book book(int price) {
+        Book book = new Book();
+        book.setStockQuantity(1000);
+        book.setPrice(price);
+        em.persist(book);
+        return book;
+    }
+}
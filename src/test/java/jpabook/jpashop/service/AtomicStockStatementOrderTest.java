@@ -0,0 +1,86 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 인기 상품 주문에서 재고 차감 UPDATE가 마지막 SQL인지 확인한다.
+ * (UPDATE 뒤에 INSERT가 남아 있으면 item 로우 락을 그만큼 오래 잡는다)
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=jpabook.jpashop.service.AtomicStockStatementOrderTest$RecordingInspector")
+@Transactional
+class AtomicStockStatementOrderTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (statements) {
+                statements.add(sql.toLowerCase());
+            }
+            return sql;
+        }
+    }
+
+    @Test
+    public void 재고차감이_마지막_SQL() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+        em.flush();
+
+        synchronized (RecordingInspector.statements) {
+            RecordingInspector.statements.clear();
+        }
+
+        // when
+        orderService.orderWithAtomicStock(member.getId(), book.getId(), 10);
+        em.flush();
+
+        // then
+        List<String> statements;
+        synchronized (RecordingInspector.statements) {
+            statements = new ArrayList<>(RecordingInspector.statements);
+        }
+
+        int update = indexOf(statements, "update item");
+        assertTrue(update >= 0, "재고 차감 UPDATE가 실행되어야 한다.");
+        assertTrue(indexOf(statements, "insert into orders") >= 0, "주문 INSERT가 실행되어야 한다.");
+        for (int i = update + 1; i < statements.size(); i++) {
+            assertFalse(statements.get(i).startsWith("insert"), "재고 차감 뒤에 INSERT가 나가면 안 된다: " + statements.get(i));
+        }
+    }
+
+    private static int indexOf(List<String> statements, String prefix) {
+        for (int i = 0; i < statements.size(); i++) {
+            if (statements.get(i).startsWith(prefix)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,56 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Item.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CategoryServiceTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    CategoryService categoryService;
+
+    @Test
+    public void 같은_상품_두번_추가() throws Exception {
+        //given
+        Long categoryId = categoryService.saveCategory("도서", null);
+
+        Book book = new Book();
+        book.setName("책1");
+        em.persist(book);
+
+        // when
+        categoryService.addItem(categoryId, book.getId());
+        categoryService.addItem(categoryId, book.getId());
+        em.flush();
+        em.clear();
+
+        // then
+        Category category = em.find(Category.class, categoryId);
+        Number rows = (Number) em.createNativeQuery("select count(*) from category_item where category_id = ?")
+                .setParameter(1, categoryId)
+                .getSingleResult();
+
+        assertEquals(1, category.getItemCount(), "같은 상품은 한 번만 세야 한다.");
+        assertEquals(1, rows.intValue(), "category_item 로우는 하나여야 한다.");
+    }
+
+    @Test
+    public void 없는_부모_카테고리() throws Exception {
+        //given
+
+        // when
+
+        // then
+        assertThrows(IllegalArgumentException.class, () -> categoryService.saveCategory("도서", -1L));
+    }
+}
@@ -0,0 +1,152 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Item.Item;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.DeliveryRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.DeliveryService.TransitionResult;
+import jpabook.jpashop.version.Aggregate;
+import jpabook.jpashop.version.AggregateVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+
+/**
+ * 청크마다 커밋되는지 보려고 테스트 트랜잭션 없이 돌리고, 만든 데이터는 직접 지운다.
+ */
+@SpringBootTest(properties = "jpashop.delivery.chunk-size=2")
+class DeliveryServiceTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    DeliveryService deliveryService;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    AggregateVersions aggregateVersions;
+    @SpyBean
+    DeliveryRepository deliveryRepository;
+
+    Long memberId;
+    Long itemId;
+    List<Long> orderIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            for (Long orderId : orderIds) {
+                OrderSummary summary = em.find(OrderSummary.class, orderId);
+                if (summary != null) {
+                    em.remove(summary);
+                }
+                em.remove(em.find(Order.class, orderId));
+            }
+            if (itemId != null) {
+                em.remove(em.find(Item.class, itemId));
+            }
+            if (memberId != null) {
+                em.remove(em.find(Member.class, memberId));
+            }
+        });
+    }
+
+    @Test
+    public void 배송완료_일괄변경() throws Exception {
+        //given
+        createMemberAndItem();
+
+        Long orderId1 = order();
+        Long orderId2 = order();
+        Long canceledOrderId = order();
+        orderService.cancelOrder(canceledOrderId);
+
+        List<Long> deliveryIds = List.of(
+                deliveryIdOf(orderId1), deliveryIdOf(orderId2), deliveryIdOf(canceledOrderId));
+
+        // when
+        TransitionResult result = deliveryService.changeStatus(deliveryIds, DeliveryStatus.COMP);
+
+        // then
+        assertEquals(2, result.getChunks().size(), "청크 크기만큼 나눠서 처리해야 한다.");
+        assertEquals(2, result.getUpdated(), "취소된 주문의 배송은 바꾸지 않아야 한다.");
+        assertEquals(0, result.getChunks().get(1).getRowsPerSecond(), "바뀐 행이 없는 청크의 처리량은 0이어야 한다.");
+        assertEquals(DeliveryStatus.COMP, statusOf(deliveryIds.get(0)), "커밋된 청크는 다른 트랜잭션에서 보여야 한다.");
+        assertEquals(DeliveryStatus.COMP, statusOf(deliveryIds.get(1)));
+        assertNotEquals(DeliveryStatus.COMP, statusOf(deliveryIds.get(2)));
+    }
+
+    @Test
+    public void 뒤_청크가_실패해도_커밋된_청크는_주문_버전을_올림() throws Exception {
+        //given
+        createMemberAndItem();
+        List<Long> deliveryIds = List.of(deliveryIdOf(order()), deliveryIdOf(order()), deliveryIdOf(order()));
+        doCallRealMethod()
+                .doThrow(new IllegalStateException("두 번째 청크 실패"))
+                .when(deliveryRepository).bulkUpdateStatus(anyList(), any());
+        long before = aggregateVersions.version(Aggregate.ORDER);
+
+        // when
+        assertThrows(IllegalStateException.class, () -> deliveryService.changeStatus(deliveryIds, DeliveryStatus.COMP));
+
+        // then
+        assertEquals(DeliveryStatus.COMP, statusOf(deliveryIds.get(0)), "첫 청크는 커밋되어 있어야 한다.");
+        assertNotEquals(DeliveryStatus.COMP, statusOf(deliveryIds.get(2)));
+        assertTrue(aggregateVersions.version(Aggregate.ORDER) > before, "커밋된 청크가 있으면 주문 버전이 올라가야 한다.");
+    }
+
+    private void createMemberAndItem() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            Member member = new Member();
+            member.setName("배송회원");
+            member.setAddress(new Address("서울", "새절", "123456"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setStockQuantity(100);
+            book.setPrice(2000);
+            em.persist(book);
+
+            memberId = member.getId();
+            itemId = book.getId();
+        });
+    }
+
+    private Long order() {
+        Long orderId = orderService.order(memberId, itemId, 1);
+        orderIds.add(orderId);
+        return orderId;
+    }
+
+    private Long deliveryIdOf(Long orderId) {
+        return new TransactionTemplate(transactionManager).execute(s ->
+                orderRepository.findOne(orderId).getDelivery().getId());
+    }
+
+    private DeliveryStatus statusOf(Long deliveryId) {
+        return new TransactionTemplate(transactionManager).execute(s ->
+                em.find(Delivery.class, deliveryId).getStatus());
+    }
+}
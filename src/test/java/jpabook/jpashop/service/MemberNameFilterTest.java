@@ -0,0 +1,77 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberNameFilterTest {
+    private static final int NAMES = 1000;
+
+    @Test
+    public void 워밍업_전에는_항상_DB_확인() throws Exception {
+        //given
+        MemberNameFilter filter = create(mock(MemberRepository.class));
+
+        // when
+
+        // then
+        assertTrue(filter.mightContain("아무이름"), "워밍업 전에는 판단할 수 없으므로 true여야 한다.");
+    }
+
+    @Test
+    public void 워밍업_추가한_이름은_항상_포함() throws Exception {
+        //given
+        List<String> warmed = names("기존", NAMES);
+        List<String> added = names("신규", NAMES);
+        MemberRepository memberRepository = mock(MemberRepository.class);
+        when(memberRepository.streamAllNames()).thenReturn(warmed.stream());
+        MemberNameFilter filter = create(memberRepository);
+
+        // when
+        filter.warmUp();
+        added.forEach(filter::put);
+
+        // then
+        assertTrue(warmed.stream().allMatch(filter::mightContain), "워밍업한 이름을 없다고 하면 안 된다.");
+        assertTrue(added.stream().allMatch(filter::mightContain), "추가한 이름을 없다고 하면 안 된다.");
+    }
+
+    @Test
+    public void 오탐률() throws Exception {
+        //given
+        MemberRepository memberRepository = mock(MemberRepository.class);
+        when(memberRepository.streamAllNames()).thenReturn(names("기존", NAMES).stream());
+        MemberNameFilter filter = create(memberRepository);
+        filter.warmUp();
+
+        // when
+        long falsePositives = names("없는", NAMES * 10).stream()
+                .filter(filter::mightContain)
+                .count();
+
+        // then
+        assertTrue(falsePositives < NAMES * 10 * 0.03, "오탐률은 설정한 1% 근처여야 한다. falsePositives=" + falsePositives);
+    }
+
+    private MemberNameFilter create(MemberRepository memberRepository) {
+        MemberNameFilter filter = new MemberNameFilter(memberRepository);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", NAMES * 2);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        filter.init();
+        return filter;
+    }
+
+    private List<String> names(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> prefix + i)
+                .collect(toList());
+    }
+}
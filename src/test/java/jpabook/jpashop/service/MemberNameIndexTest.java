@@ -0,0 +1,53 @@
+package jpabook.jpashop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberNameIndexTest {
+    private final MemberNameIndex index = new MemberNameIndex(null);
+
+    @Test
+    public void 이름_중간일치_검색() throws Exception {
+        //given
+        index.put(1L, "kimchulsoo");
+        index.put(2L, "leechulsoo");
+        index.put(3L, "parkyounghee");
+
+        // when
+        List<Long> ids = index.findIds("chul");
+
+        // then
+        assertEquals(2, ids.size(), "검색어가 포함된 회원만 찾아야 한다.");
+        assertTrue(ids.containsAll(List.of(1L, 2L)));
+        assertEquals(List.of(3L), index.findIds("park"), "접두어로도 찾을 수 있어야 한다.");
+        assertEquals(List.of(3L), index.findIds("y"), "한 글자도 찾을 수 있어야 한다.");
+    }
+
+    @Test
+    public void 이름변경시_이전이름으로_검색되지_않음() throws Exception {
+        //given
+        index.put(1L, "kimchulsoo");
+
+        // when
+        index.put(1L, "kimyoungsoo");
+
+        // then
+        assertTrue(index.findIds("chul").isEmpty(), "변경 전 이름으로는 찾을 수 없어야 한다.");
+        assertEquals(List.of(1L), index.findIds("young"));
+    }
+
+    @Test
+    public void 바이그램이_모두_있어도_이름에_없으면_제외() throws Exception {
+        //given
+        index.put(1L, "abxbc");
+
+        // when
+        List<Long> ids = index.findIds("abc");
+
+        // then
+        assertTrue(ids.isEmpty(), "바이그램 교집합 후보는 실제 이름으로 확인해야 한다.");
+    }
+}
@@ -24,6 +24,8 @@ class MemberServiceTest {
     MemberRepository memberRepository;
     @Autowired
     EntityManager em;
+    @Autowired
+    MemberNameFilter memberNameFilter;
 
     @Test
     public void 회원가입() throws Exception {
@@ -35,7 +37,7 @@ class MemberServiceTest {
         Long savedId = memberService.join(member);
 
         // then
-        assertEquals(member, memberRepository.findOne(savedId));
+        assertEquals(member, memberRepository.findById(savedId).get());
     }
 
     @Test
@@ -54,4 +56,37 @@ class MemberServiceTest {
         // then
         assertThrows(IllegalStateException.class, () -> memberService.join(member2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 필터를_통과한_중복_이름은_유니크_제약조건으로_막음() throws Exception {
+        //given
+        Member existing = new Member();
+        existing.setName("필터밖회원");
+        em.persist(existing);
+        em.flush();
+
+        Member member = new Member();
+        member.setName("필터밖회원");
+
+        // when
+
+        // then
+        assertFalse(memberNameFilter.mightContain("필터밖회원"), "필터에 넣지 않은 이름이어야 exists 쿼리 없이 통과한다.");
+        assertThrows(IllegalStateException.class, () -> memberService.join(member), "유니크 제약조건 위반은 중복 회원 예외로 바뀌어야 한다.");
+    }
+
+    @Test
+    public void 가입_이름변경_후_필터에_포함() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("필터회원");
+
+        // when
+        Long memberId = memberService.join(member);
+        memberService.update(memberId, "필터회원2");
+
+        // then
+        assertTrue(memberNameFilter.mightContain("필터회원"), "가입한 이름은 필터에 있어야 한다.");
+        assertTrue(memberNameFilter.mightContain("필터회원2"), "바꾼 이름도 필터에 있어야 한다.");
+    }
+}
@@ -1,10 +1,14 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Item.Book;
 import jpabook.jpashop.domain.Item.Item;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderLine;
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.domain.OrderSort;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.MemberRepository;
@@ -19,7 +23,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.swing.text.html.parser.Entity;
+import java.util.List;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -106,4 +112,268 @@ class OrderServiceTest {
         assertEquals(OrderStatus.CANCEL, getOrder.getStatus(), "주문 취소 상태여야 한다.");
         assertEquals(100, book.getStockQuantity(), "주문 취소 상품은 재고가 그만큼 증가해야 한다.");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 주문검색_상품_금액_정렬() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+
+        Long smallOrderId = orderService.order(member.getId(), book.getId(), 1);
+        Long largeOrderId = orderService.order(member.getId(), book.getId(), 10);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setItemId(book.getId());
+        orderSearch.setMinPrice(2000);
+        orderSearch.setSort(OrderSort.TOTAL_PRICE_DESC);
+
+        // when
+        List<Order> orders = orderRepository.findAll(orderSearch);
+
+        orderSearch.setMinPrice(3000);
+        List<Order> largeOrders = orderRepository.findAll(orderSearch);
+
+        // then
+        assertEquals(List.of(largeOrderId, smallOrderId), orders.stream().map(Order::getId).collect(toList()), "금액 내림차순이어야 한다.");
+        assertEquals(List.of(largeOrderId), largeOrders.stream().map(Order::getId).collect(toList()), "최소 금액 이상인 주문만 조회해야 한다.");
+    }
+
+    @Test
+    public void 일괄취소() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 10);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 20);
+        Long deliveredOrderId = orderService.order(member.getId(), book.getId(), 30);
+        orderRepository.findOne(deliveredOrderId).getDelivery().setStatus(DeliveryStatus.COMP);
+
+        // when
+        OrderService.BatchCancelResult result = orderService.cancelOrders(List.of(orderId1, orderId2, deliveredOrderId));
+
+        // then
+        Book getBook = em.find(Book.class, book.getId());
+
+        assertEquals(List.of(orderId1, orderId2), result.getCancelledOrderIds(), "배송 전 주문만 취소되어야 한다.");
+        assertEquals(List.of(deliveredOrderId), result.getRejectedOrderIds(), "배송 완료된 주문은 건너뛰어야 한다.");
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId1).getStatus());
+        assertEquals(OrderStatus.ORDER, orderRepository.findOne(deliveredOrderId).getStatus());
+        assertEquals(70, getBook.getStockQuantity(), "취소된 주문 수량의 합만큼 재고가 늘어야 한다.");
+    }
+
+    @Test
+    public void 상품주문_원자적재고감소() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setAuthor("공책");
+        book.setIsbn("181727232");
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+
+        // when
+        Long orderId = orderService.orderWithAtomicStock(member.getId(), book.getId(), 10);
+        em.flush();
+        em.clear();
+
+        // then
+        Order getOrder = orderRepository.findOne(orderId);
+        Book getBook = em.find(Book.class, book.getId());
+
+        assertEquals(OrderStatus.ORDER, getOrder.getStatus(), "상품 주문 시 상태는 ORDER여야 한다.");
+        assertEquals(20000, getOrder.getTotalPrice(), "가격은 가격 * 수량이다.");
+        assertEquals(90, getBook.getStockQuantity(), "주문 수량 만큼 재고가 줄어야 한다.");
+    }
+
+    @Test
+    public void 상품주문_원자적재고감소_재고수량초과() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setAuthor("공책");
+        book.setIsbn("181727232");
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+        em.flush();
+
+        // when
+
+        // then
+        assertThrows(NotEnoughStockException.class, () -> orderService.orderWithAtomicStock(member.getId(), book.getId(), 200));
+    }
+
+    @Test
+    public void 장바구니주문() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book1 = new Book();
+        book1.setName("책1");
+        book1.setStockQuantity(100);
+        book1.setPrice(2000);
+        em.persist(book1);
+
+        Book book2 = new Book();
+        book2.setName("책2");
+        book2.setStockQuantity(50);
+        book2.setPrice(3000);
+        em.persist(book2);
+
+        // when
+        Long orderId = orderService.order(member.getId(), List.of(
+                new OrderLine(book1.getId(), 10),
+                new OrderLine(book2.getId(), 5)));
+
+        // then
+        Order getOrder = orderRepository.findOne(orderId);
+
+        assertEquals(OrderStatus.ORDER, getOrder.getStatus(), "상품 주문 시 상태는 ORDER여야 한다.");
+        assertEquals(2, getOrder.getOrderItems().size(), "주문 상품 종류 수가 정확해야 한다.");
+        assertEquals(35000, getOrder.getTotalPrice(), "가격은 상품별 가격 * 수량의 합이다.");
+        assertEquals(90, book1.getStockQuantity(), "주문 수량 만큼 재고가 줄어야 한다.");
+        assertEquals(45, book2.getStockQuantity(), "주문 수량 만큼 재고가 줄어야 한다.");
+    }
+
+    @Test
+    public void 주문금액_저장() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book1 = new Book();
+        book1.setStockQuantity(100);
+        book1.setPrice(2000);
+        em.persist(book1);
+
+        Book book2 = new Book();
+        book2.setStockQuantity(100);
+        book2.setPrice(3000);
+        em.persist(book2);
+
+        // when
+        Long singleOrderId = orderService.order(member.getId(), book1.getId(), 3);
+        Long cartOrderId = orderService.order(member.getId(), List.of(
+                new OrderLine(book1.getId(), 1),
+                new OrderLine(book2.getId(), 2)));
+        orderService.cancelOrder(cartOrderId);
+        em.flush();
+        em.clear();
+
+        // then
+        assertEquals(6000, orderRepository.findOne(singleOrderId).getTotalPrice(), "단건 주문 금액이 저장되어야 한다.");
+        assertEquals(8000, orderRepository.findOne(cartOrderId).getTotalPrice(), "취소해도 장바구니 주문 금액은 그대로여야 한다.");
+    }
+
+    @Test
+    public void 장바구니주문_수량이_0이하() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+
+        // when
+
+        // then
+        assertThrows(IllegalArgumentException.class, () -> orderService.order(member.getId(), List.of(new OrderLine(book.getId(), -5))));
+        assertEquals(100, book.getStockQuantity(), "음수 수량으로 재고가 늘어나면 안 된다.");
+    }
+
+    @Test
+    public void 주문검색_memberIds_파라미터_무시() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setItemId(book.getId());
+        orderSearch.setMemberIds(List.of(-1L));
+
+        // when
+        List<Order> orders = orderService.findOrders(orderSearch);
+
+        // then
+        assertEquals(List.of(orderId), orders.stream().map(Order::getId).collect(toList()), "요청으로 넘어온 memberIds는 검색 조건에 쓰면 안 된다.");
+    }
+
+    @Test
+    public void 주문검색_회원이름_와일드카드_이스케이프() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(2000);
+        em.persist(book);
+
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        OrderSearch wildcard = new OrderSearch();
+        wildcard.setItemId(book.getId());
+        wildcard.setMemberName("회_1");
+
+        OrderSearch plain = new OrderSearch();
+        plain.setItemId(book.getId());
+        plain.setMemberName("원1");
+
+        OrderSearch noMembers = new OrderSearch();
+        noMembers.setMemberIds(List.of());
+
+        // when
+        List<Order> wildcardOrders = orderRepository.findAll(wildcard);
+        List<Order> plainOrders = orderRepository.findAll(plain);
+        List<Order> noMemberOrders = orderRepository.findAll(noMembers);
+
+        // then
+        assertTrue(wildcardOrders.isEmpty(), "_ 는 와일드카드가 아니라 문자 그대로 비교해야 한다.");
+        assertEquals(List.of(orderId), plainOrders.stream().map(Order::getId).collect(toList()), "이름 일부로 검색할 수 있어야 한다.");
+        assertTrue(noMemberOrders.isEmpty(), "빈 회원 id 목록이면 결과도 없어야 한다.");
+    }
+}
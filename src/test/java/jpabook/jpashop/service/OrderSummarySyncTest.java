@@ -0,0 +1,177 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderLine;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * order_summary는 엔티티 리스너가 아니라 서비스의 쓰기 경로마다 함께 갱신된다.
+ * 쓰기 경로마다 주문 원본과 읽기 모델이 같은지 확인한다.
+ */
+@SpringBootTest
+@Transactional
+class OrderSummarySyncTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    OrderSummaryService orderSummaryService;
+
+    @Test
+    public void 단건_주문() throws Exception {
+        //given
+        Member member = member("요약회원1");
+        Book book = book(2000);
+
+        // when
+        Long orderId = orderService.order(member.getId(), book.getId(), 3);
+
+        // then
+        assertSynced(orderId);
+    }
+
+    @Test
+    public void 장바구니_주문() throws Exception {
+        //given
+        Member member = member("요약회원2");
+        Book book1 = book(2000);
+        Book book2 = book(3000);
+
+        // when
+        Long orderId = orderService.order(member.getId(), List.of(
+                new OrderLine(book1.getId(), 1),
+                new OrderLine(book2.getId(), 2)));
+
+        // then
+        OrderSummary summary = assertSynced(orderId);
+        assertEquals(2, summary.getItemCount(), "주문상품 종류 수가 들어가야 한다.");
+    }
+
+    @Test
+    public void 원자적_재고_차감_주문() throws Exception {
+        //given
+        Member member = member("요약회원3");
+        Book book = book(2000);
+
+        // when
+        Long orderId = orderService.orderWithAtomicStock(member.getId(), book.getId(), 2);
+
+        // then
+        assertSynced(orderId);
+    }
+
+    @Test
+    public void 주문_취소() throws Exception {
+        //given
+        Member member = member("요약회원4");
+        Book book = book(2000);
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        // when
+        orderService.cancelOrder(orderId);
+
+        // then
+        assertEquals(OrderStatus.CANCEL, assertSynced(orderId).getStatus());
+    }
+
+    @Test
+    public void 일괄_취소() throws Exception {
+        //given
+        Member member = member("요약회원5");
+        Book book = book(2000);
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 1);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 2);
+
+        // when
+        orderService.cancelOrders(List.of(orderId1, orderId2));
+
+        // then
+        assertEquals(OrderStatus.CANCEL, assertSynced(orderId1).getStatus());
+        assertEquals(OrderStatus.CANCEL, assertSynced(orderId2).getStatus());
+    }
+
+    @Test
+    public void 회원_이름_변경() throws Exception {
+        //given
+        Member member = member("요약회원6");
+        Book book = book(2000);
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        // when
+        memberService.update(member.getId(), "요약회원6_변경");
+
+        // then
+        assertEquals("요약회원6_변경", assertSynced(orderId).getMemberName());
+    }
+
+    @Test
+    public void 다시_만들기() throws Exception {
+        //given
+        Member member = member("요약회원7");
+        Book book = book(2000);
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 2));
+        em.persist(order);
+
+        // when
+        em.flush();
+        assertNull(em.find(OrderSummary.class, order.getId()), "EntityManager로 직접 넣은 주문은 요약이 없다.");
+        orderSummaryService.rebuild();
+
+        // then
+        assertSynced(order.getId());
+    }
+
+    private OrderSummary assertSynced(Long orderId) {
+        em.flush();
+        em.clear();
+
+        Order order = em.find(Order.class, orderId);
+        OrderSummary summary = em.find(OrderSummary.class, orderId);
+
+        assertNotNull(summary, "주문마다 요약이 있어야 한다.");
+        assertEquals(order.getMember().getId(), summary.getMemberId());
+        assertEquals(order.getMember().getName(), summary.getMemberName());
+        assertEquals(order.getOrderDate(), summary.getOrderDate());
+        assertEquals(order.getStatus(), summary.getStatus());
+        assertEquals(order.getDelivery().getAddress().getCity(), summary.getAddress().getCity());
+        assertEquals(order.getOrderItems().size(), summary.getItemCount());
+        assertEquals(order.getTotalPrice(), summary.getTotalPrice());
+        return summary;
+    }
+
+    private Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "새절", "123456"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book book(int price) {
+        Book book = new Book();
+        book.setStockQuantity(100);
+        book.setPrice(price);
+        em.persist(book);
+        return book;
+    }
+}
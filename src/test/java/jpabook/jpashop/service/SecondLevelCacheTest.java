@@ -0,0 +1,140 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Item.Book;
+import jpabook.jpashop.domain.Item.Item;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.ItemRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 테스트 설정(application.yml)에는 2차 캐시가 꺼져 있으므로 운영과 같은 JCache 리전을 켜고
+ * 수정한 엔티티가 다음 트랜잭션의 findOne에서 캐시된 옛 값으로 보이지 않는지 확인한다.
+ * 트랜잭션마다 커밋해야 캐시를 거치므로 테스트에 @Transactional을 붙이지 않는다.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SecondLevelCacheTest {
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    MemberService memberService;
+    @Autowired
+    TransactionTemplate tx;
+    @Autowired
+    EntityManagerFactory emf;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void 캐시된_상품_조회() throws Exception {
+        //given
+        Long itemId = saveBook("캐시 상품", 10);
+        itemService.findOne(itemId);
+        statistics.clear();
+
+        // when
+        itemService.findOne(itemId);
+
+        // then
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0, "두 번째 조회는 2차 캐시에서 읽어야 한다.");
+        assertEquals(0, statistics.getSecondLevelCacheMissCount(), "캐시된 상품은 미스가 없어야 한다.");
+    }
+
+    @Test
+    public void 상품수정_후_조회() throws Exception {
+        //given
+        Long itemId = saveBook("수정 전 상품", 10);
+        itemService.findOne(itemId);
+
+        // when
+        itemService.updateItem(itemId, "수정 후 상품", 20000, 30);
+
+        // then
+        Item item = itemService.findOne(itemId);
+        assertEquals("수정 후 상품", item.getName(), "수정한 이름이 보여야 한다.");
+        assertEquals(20000, item.getPrice(), "수정한 가격이 보여야 한다.");
+        assertEquals(30, item.getStockQuantity(), "수정한 재고가 보여야 한다.");
+    }
+
+    @Test
+    public void 재고차감_후_조회() throws Exception {
+        //given
+        Long itemId = saveBook("재고 차감 상품", 10);
+        itemService.findOne(itemId);
+        statistics.clear();
+
+        // when
+        tx.executeWithoutResult(s -> itemRepository.decreaseStock(itemId, 3));
+
+        // then
+        assertEquals(7, itemService.findOne(itemId).getStockQuantity(), "네이티브 UPDATE로 줄인 재고가 보여야 한다.");
+        assertTrue(statistics.getSecondLevelCacheMissCount() > 0, "재고가 바뀐 상품은 캐시에서 지워져야 한다.");
+
+        statistics.clear();
+        itemService.findOne(itemId);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0, "다시 조회한 상품은 캐시에 다시 들어가야 한다.");
+    }
+
+    @Test
+    public void 재고증가_후_조회() throws Exception {
+        //given
+        Long itemId = saveBook("재고 증가 상품", 10);
+        itemService.findOne(itemId);
+        statistics.clear();
+
+        // when
+        tx.executeWithoutResult(s -> itemRepository.increaseStock(itemId, 5));
+
+        // then
+        assertEquals(15, itemService.findOne(itemId).getStockQuantity(), "네이티브 UPDATE로 늘린 재고가 보여야 한다.");
+        assertTrue(statistics.getSecondLevelCacheMissCount() > 0, "재고가 바뀐 상품은 캐시에서 지워져야 한다.");
+    }
+
+    @Test
+    public void 회원수정_후_조회() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("캐시 회원");
+        Long memberId = memberService.join(member);
+        memberService.findOne(memberId);
+        statistics.clear();
+
+        // when
+        memberService.update(memberId, "캐시 회원 변경");
+
+        // then
+        assertEquals("캐시 회원 변경", memberService.findOne(memberId).getName(), "수정한 회원 이름이 보여야 한다.");
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0, "회원은 캐시에서 갱신된 값으로 읽어야 한다.");
+    }
+
+    private Long saveBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}